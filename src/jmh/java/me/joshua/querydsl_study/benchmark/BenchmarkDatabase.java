@@ -0,0 +1,63 @@
+package me.joshua.querydsl_study.benchmark;
+
+import me.joshua.querydsl_study.Application;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * 벤치마크용 애플리케이션 컨텍스트
+ *
+ * 외부 H2 서버 대신 메모리 H2 를 사용하고, SQL 로그처럼 측정을 흐리는 설정은 끈다.
+ * 데이터는 엔티티를 persist 하는 대신 H2 의 system_range 로 한 번에 넣는다.
+ * (회원 age 는 0 ~ 99, 팀은 회원 id 순서대로 돌아가며 배정한다.)
+ */
+public final class BenchmarkDatabase implements AutoCloseable {
+
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkDatabase(final ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+
+    public static BenchmarkDatabase start(final int memberCount, final int teamCount, final String... properties) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.properties.hibernate.generate_statistics=false",
+                        "spring.jpa.properties.hibernate.use_sql_comments=false",
+                        "decorator.datasource.p6spy.enable-logging=false",
+                        "logging.level.root=warn",
+                        "logging.level.org.hibernate.SQL=warn",
+                        "logging.level.org.hibernate.type=warn")
+                .properties(properties)
+                .run();
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("insert into team (id, name) select x, 'team' || x from system_range(1, ?)", teamCount);
+        jdbcTemplate.update("insert into member (member_id, username, age, version, team_id) "
+                + "select x, 'member' || x, mod(x, 100), 0, mod(x, ?) + 1 from system_range(1, ?)", teamCount, memberCount);
+        jdbcTemplate.execute("alter sequence team_seq restart with " + (teamCount + 1));
+        jdbcTemplate.execute("alter sequence member_seq restart with " + (memberCount + 1));
+        jdbcTemplate.execute("analyze");
+
+        return new BenchmarkDatabase(context);
+    }
+
+    public <T> T getBean(final Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public EntityManagerFactory getEntityManagerFactory() {
+        return context.getBean(EntityManagerFactory.class);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,120 @@
+package me.joshua.querydsl_study.benchmark;
+
+import me.joshua.querydsl_study.dto.MemberSearchCondition;
+import me.joshua.querydsl_study.dto.MemberTeamDto;
+import me.joshua.querydsl_study.repository.MemberQueryRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MemberQueryRepository.search 의 인덱스 유무에 따른 차이
+ *
+ * ./gradlew jmh -PjmhIncludes=MemberSearchBenchmark
+ *
+ * indexed=false 이면 엔티티에 선언한 인덱스와 제약조건이 만든 인덱스
+ * (team_id 외래키, natural id 인 username 의 유일 제약조건) 를 지우고 같은 검색을 한다.
+ * 시작할 때 조건별 실행 계획 (H2 EXPLAIN) 을 출력한다.
+ * count 캐시를 꺼서 매번 count 쿼리까지 실행한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MemberSearchBenchmark {
+
+    private static final Pageable PAGE = PageRequest.of(0, 20);
+
+    @Param({"1000000"})
+    public int memberCount;
+
+    @Param({"1000"})
+    public int teamCount;
+
+    @Param({"true", "false"})
+    public boolean indexed;
+
+    private BenchmarkDatabase database;
+
+    private MemberQueryRepository memberQueryRepository;
+
+    private int sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.start(memberCount, teamCount, "querydsl-study.paging.count-cache.ttl=0s");
+        memberQueryRepository = database.getBean(MemberQueryRepository.class);
+
+        JdbcTemplate jdbcTemplate = database.getBean(JdbcTemplate.class);
+        if (!indexed) {
+            dropIndexes(jdbcTemplate);
+        }
+        printPlan(jdbcTemplate, "select * from member where username = 'member1'");
+        printPlan(jdbcTemplate, "select * from member m join team t on m.team_id = t.id where t.name = 'team1' and m.age between 20 and 30");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchByUsername() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("member" + nextId());
+        return memberQueryRepository.search(condition, PAGE);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchByTeamNameAndAge() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("team" + (nextId() % teamCount + 1));
+        condition.setAgeGoe(20);
+        condition.setAgeLoe(30);
+        return memberQueryRepository.search(condition, PAGE);
+    }
+
+    private void dropIndexes(final JdbcTemplate jdbcTemplate) {
+        // 제약조건도 자기 인덱스를 만들므로 같이 지운다. (외래키를 먼저 지운다.)
+        List<String> constraints = jdbcTemplate.queryForList(
+                "select constraint_name from information_schema.constraints "
+                        + "where table_name = 'MEMBER' and constraint_type in ('REFERENTIAL', 'UNIQUE') "
+                        + "order by case constraint_type when 'REFERENTIAL' then 0 else 1 end",
+                String.class);
+        constraints.forEach(name -> jdbcTemplate.execute("alter table member drop constraint " + name));
+        jdbcTemplate.execute("drop index if exists idx_member_username_age");
+        jdbcTemplate.execute("drop index if exists idx_member_age_id");
+        jdbcTemplate.execute("drop index if exists idx_member_team_id_age");
+        jdbcTemplate.execute("drop index if exists idx_team_name");
+        jdbcTemplate.execute("analyze");
+    }
+
+    private void printPlan(final JdbcTemplate jdbcTemplate, final String sql) {
+        String plan = jdbcTemplate.queryForObject("explain " + sql, String.class);
+        System.out.println("[indexed=" + indexed + "] " + plan);
+    }
+
+    private int nextId() {
+        sequence++;
+        return sequence % memberCount + 1;
+    }
+}
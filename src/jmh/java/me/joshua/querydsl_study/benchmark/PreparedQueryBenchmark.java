@@ -0,0 +1,102 @@
+package me.joshua.querydsl_study.benchmark;
+
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import me.joshua.querydsl_study.entity.Member;
+import me.joshua.querydsl_study.support.PreparedQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.TimeUnit;
+
+import static me.joshua.querydsl_study.entity.QMember.member;
+
+/**
+ * 매번 queryFactory 로 쿼리를 만드는 경우와 PreparedQuery 로 값만 바인딩하는 경우의 호출당 비용
+ *
+ * 둘 다 같은 SQL 을 실행하므로 차이는 쿼리 객체 생성 + JPQL 직렬화 + 쿼리 플랜 조회 비용이다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PreparedQueryBenchmark {
+
+    private static final int MEMBER_COUNT = 10_000;
+
+    private static final Param<String> USERNAME = new Param<>(String.class, "username");
+
+    private BenchmarkDatabase database;
+
+    private EntityManager em;
+
+    private JPAQueryFactory queryFactory;
+
+    private PreparedQuery<Member> findByUsername;
+
+    private int sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.start(MEMBER_COUNT, 10);
+        em = database.getEntityManagerFactory().createEntityManager();
+        queryFactory = new JPAQueryFactory(em);
+        findByUsername = PreparedQuery.of(em, queryFactory
+                .selectFrom(member)
+                .where(member.username.eq(USERNAME)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        em.close();
+        database.close();
+    }
+
+    @Benchmark
+    public Member adHoc() {
+        Member result = queryFactory
+                .selectFrom(member)
+                .where(member.username.eq(nextUsername()))
+                .fetchOne();
+        em.clear();
+        return result;
+    }
+
+    @Benchmark
+    public Member prepared() {
+        Member result = findByUsername
+                .bind(USERNAME, nextUsername())
+                .fetchOne();
+        em.clear();
+        return result;
+    }
+
+    /**
+     * JPQL 직렬화만의 비용 (DB 호출 없음)
+     */
+    @Benchmark
+    public String serializeOnly() {
+        return queryFactory
+                .selectFrom(member)
+                .where(member.username.eq(nextUsername()))
+                .toString();
+    }
+
+    private String nextUsername() {
+        sequence = sequence % MEMBER_COUNT + 1;
+        return "member" + sequence;
+    }
+}
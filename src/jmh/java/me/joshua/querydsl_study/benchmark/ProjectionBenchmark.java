@@ -0,0 +1,120 @@
+package me.joshua.querydsl_study.benchmark;
+
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import me.joshua.querydsl_study.dto.MemberDto;
+import me.joshua.querydsl_study.dto.QMemberDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static me.joshua.querydsl_study.entity.QMember.member;
+
+/**
+ * DTO 프로젝션 방식별 비용
+ *
+ * newInstance* : DB 없이 한 행을 DTO 로 만드는 비용만 측정 (프로젝션 방식의 순수 CPU 비용)
+ * fetch*       : 실제 조회 ROWS 건 (DB, 하이버네이트 비용 포함)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectionBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    private final FactoryExpression<MemberDto> bean = Projections.bean(MemberDto.class, member.username, member.age);
+
+    private final FactoryExpression<MemberDto> fields = Projections.fields(MemberDto.class, member.username, member.age);
+
+    private final FactoryExpression<MemberDto> constructor = Projections.constructor(MemberDto.class, member.username, member.age);
+
+    private final FactoryExpression<MemberDto> queryProjection = new QMemberDto(member.username, member.age);
+
+    private BenchmarkDatabase database;
+
+    private EntityManager em;
+
+    private JPAQueryFactory queryFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.start(ROWS, 10);
+        em = database.getEntityManagerFactory().createEntityManager();
+        queryFactory = new JPAQueryFactory(em);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        em.close();
+        database.close();
+    }
+
+    @Benchmark
+    public MemberDto newInstanceBean() {
+        return bean.newInstance("member1", 10);
+    }
+
+    @Benchmark
+    public MemberDto newInstanceFields() {
+        return fields.newInstance("member1", 10);
+    }
+
+    @Benchmark
+    public MemberDto newInstanceConstructor() {
+        return constructor.newInstance("member1", 10);
+    }
+
+    @Benchmark
+    public MemberDto newInstanceQueryProjection() {
+        return queryProjection.newInstance("member1", 10);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<MemberDto> fetchBean() {
+        return fetch(bean);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<MemberDto> fetchFields() {
+        return fetch(fields);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<MemberDto> fetchConstructor() {
+        return fetch(constructor);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<MemberDto> fetchQueryProjection() {
+        return fetch(queryProjection);
+    }
+
+    private List<MemberDto> fetch(final FactoryExpression<MemberDto> projection) {
+        return queryFactory
+                .select(projection)
+                .from(member)
+                .fetch();
+    }
+}
@@ -0,0 +1,218 @@
+package me.joshua.querydsl_study.benchmark;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import me.joshua.querydsl_study.dto.MemberDto;
+import me.joshua.querydsl_study.entity.Member;
+import me.joshua.querydsl_study.entity.QMember;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static me.joshua.querydsl_study.entity.QMember.member;
+import static me.joshua.querydsl_study.entity.QTeam.team;
+
+/**
+ * QuerydslBasicTest 의 쿼리 패턴별 성능 기준값
+ *
+ * 데이터 크기는 memberCount 로 바꾼다. (10k ~ 10M)
+ * ./gradlew jmh -PmemberCount=10000,1000000
+ *
+ * 목록 조회는 결과 크기가 데이터 크기에 따라 커지지 않도록 PAGE_SIZE 로 제한한다.
+ * 측정마다 영속성 컨텍스트를 비워서 1차 캐시 효과가 섞이지 않게 한다.
+ * (벤치마크 메서드 안에서 비운다. Level.Invocation 픽스처는 마이크로초 단위 측정에서 타이머 오차가 더 크다.)
+ * 2차 캐시 / 쿼리 캐시는 끄고, 지연 로딩은 batch 없이 (default_batch_fetch_size = 1) 쿼리 패턴 자체의 비용을 잰다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QuerydslPatternBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"10000"})
+    public int memberCount;
+
+    @Param({"100"})
+    public int teamCount;
+
+    private BenchmarkDatabase database;
+
+    private EntityManager em;
+
+    private JPAQueryFactory queryFactory;
+
+    private int sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.start(memberCount, teamCount,
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+                "spring.jpa.properties.hibernate.default_batch_fetch_size=1");
+        em = database.getEntityManagerFactory().createEntityManager();
+        queryFactory = new JPAQueryFactory(em);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        em.close();
+        database.close();
+    }
+
+    // fetch vs fetchOne
+
+    @Benchmark
+    public List<Member> fetch() {
+        return clearedQueryFactory()
+                .selectFrom(member)
+                .where(member.age.eq(nextAge()))
+                .limit(PAGE_SIZE)
+                .fetch();
+    }
+
+    @Benchmark
+    public Member fetchOne() {
+        return clearedQueryFactory()
+                .selectFrom(member)
+                .where(member.username.eq("member" + nextId()))
+                .fetchOne();
+    }
+
+    // fetch join vs 지연 로딩
+
+    @Benchmark
+    public void lazyTeam(final Blackhole blackhole) {
+        List<Member> members = clearedQueryFactory()
+                .selectFrom(member)
+                .where(member.age.eq(nextAge()))
+                .limit(PAGE_SIZE)
+                .fetch();
+        for (Member m : members) {
+            blackhole.consume(m.getTeam().getName());
+        }
+    }
+
+    @Benchmark
+    public void fetchJoinTeam(final Blackhole blackhole) {
+        List<Member> members = clearedQueryFactory()
+                .selectFrom(member)
+                .join(member.team, team).fetchJoin()
+                .where(member.age.eq(nextAge()))
+                .limit(PAGE_SIZE)
+                .fetch();
+        for (Member m : members) {
+            blackhole.consume(m.getTeam().getName());
+        }
+    }
+
+    // 서브쿼리
+
+    @Benchmark
+    public List<Member> subQueryMax() {
+        QMember memberSub = new QMember("memberSub");
+        return clearedQueryFactory()
+                .selectFrom(member)
+                .where(member.age.eq(
+                        JPAExpressions
+                                .select(memberSub.age.max())
+                                .from(memberSub)))
+                .limit(PAGE_SIZE)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<Tuple> subQuerySelect() {
+        QMember memberSub = new QMember("memberSub");
+        return clearedQueryFactory()
+                .select(member.username,
+                        JPAExpressions
+                                .select(memberSub.age.avg())
+                                .from(memberSub))
+                .from(member)
+                .limit(PAGE_SIZE)
+                .fetch();
+    }
+
+    // DTO 프로젝션
+
+    @Benchmark
+    public List<MemberDto> projectionBean() {
+        return clearedQueryFactory()
+                .select(Projections.bean(MemberDto.class,
+                        member.username,
+                        member.age))
+                .from(member)
+                .limit(PAGE_SIZE * 10)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> projectionFields() {
+        return clearedQueryFactory()
+                .select(Projections.fields(MemberDto.class,
+                        member.username,
+                        member.age))
+                .from(member)
+                .limit(PAGE_SIZE * 10)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> projectionConstructor() {
+        return clearedQueryFactory()
+                .select(Projections.constructor(MemberDto.class,
+                        member.username,
+                        member.age))
+                .from(member)
+                .limit(PAGE_SIZE * 10)
+                .fetch();
+    }
+
+    // 집합
+
+    @Benchmark
+    public List<Tuple> groupByTeam() {
+        return clearedQueryFactory()
+                .select(team.name, member.age.avg())
+                .from(member)
+                .join(member.team, team)
+                .groupBy(team.name)
+                .fetch();
+    }
+
+    private JPAQueryFactory clearedQueryFactory() {
+        em.clear();
+        return queryFactory;
+    }
+
+    private int nextAge() {
+        sequence++;
+        return sequence % 100;
+    }
+
+    private int nextId() {
+        sequence++;
+        return sequence % memberCount + 1;
+    }
+}
@@ -0,0 +1,108 @@
+package me.joshua.querydsl_study.benchmark;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import me.joshua.querydsl_study.entity.Member;
+import me.joshua.querydsl_study.support.QueryMemo;
+import me.joshua.querydsl_study.support.ReadOnlyQueryFactory;
+import org.hibernate.Session;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static me.joshua.querydsl_study.entity.QMember.member;
+
+/**
+ * 회원 memberCount 건을 한 영속성 컨텍스트에 로딩할 때 일반 / 읽기 전용 비교
+ *
+ * ./gradlew jmh -PjmhIncludes=ReadOnlyQueryBenchmark  (할당량은 -prof gc 를 함께 쓰면 나온다.)
+ *
+ * managed         : JPAQueryFactory (스냅샷 생성)
+ * readOnlyHint    : ReadOnlyQueryFactory (org.hibernate.readOnly 힌트)
+ * readOnlySession : 세션 기본값을 읽기 전용으로 (@Transactional(readOnly = true) 와 같은 상태)
+ *
+ * 매 호출마다 로딩 직후 영속성 컨텍스트가 붙잡고 있는 힙 크기 (GC 후 사용량 - 로딩 전 사용량) 를 출력한다.
+ * 2차 캐시는 끈다. (켜져 있으면 로딩한 회원이 Member 캐시 영역에도 들어가서 그만큼 힙 크기에 섞인다.)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ReadOnlyQueryBenchmark {
+
+    @Param({"1000000"})
+    public int memberCount;
+
+    @Param({"managed", "readOnlyHint", "readOnlySession"})
+    public String mode;
+
+    private BenchmarkDatabase database;
+
+    private EntityManager em;
+
+    private JPAQueryFactory queryFactory;
+
+    private long baseline;
+
+    private List<Member> loaded;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.start(memberCount, 100,
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "spring.jpa.properties.hibernate.cache.use_query_cache=false");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void open() {
+        em = database.getEntityManagerFactory().createEntityManager();
+        queryFactory = "readOnlyHint".equals(mode) ? new ReadOnlyQueryFactory(em, database.getBean(QueryMemo.class)) : new JPAQueryFactory(em);
+        if ("readOnlySession".equals(mode)) {
+            em.unwrap(Session.class).setDefaultReadOnly(true);
+        }
+        baseline = usedHeap();
+    }
+
+    @TearDown(Level.Invocation)
+    public void close() {
+        System.out.printf("%n[%s] retained %.1f MB%n", mode, (usedHeap() - baseline) / (1024.0 * 1024.0));
+        loaded = null;
+        em.close();
+    }
+
+    @Benchmark
+    public int loadAll() {
+        loaded = queryFactory
+                .selectFrom(member)
+                .fetch();
+        return loaded.size();
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
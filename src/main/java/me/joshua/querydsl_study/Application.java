@@ -1,7 +1,15 @@
 package me.joshua.querydsl_study;
 
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import me.joshua.querydsl_study.support.InvalidatingQueryFactory;
+import me.joshua.querydsl_study.support.QueryMemo;
+import me.joshua.querydsl_study.support.ReadOnlyQueryFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+import javax.persistence.EntityManager;
 
 @SpringBootApplication
 public class Application {
@@ -10,4 +18,23 @@ public class Application {
         SpringApplication.run(Application.class, args);
     }
 
+    /**
+     * 스프링이 주입하는 EntityManager 는 트랜잭션 단위로 바인딩되는 프록시이므로
+     * JPAQueryFactory 를 싱글톤 빈으로 등록해도 동시성 문제가 없다.
+     * update / delete 는 실행 후 QueryMemo 를 무효화한다.
+     */
+    @Bean
+    @Primary
+    JPAQueryFactory jpaQueryFactory(final EntityManager em, final QueryMemo queryMemo) {
+        return new InvalidatingQueryFactory(em, queryMemo);
+    }
+
+    /**
+     * 읽기 전용 조회용 (스냅샷 없음, dirty checking 없음)
+     */
+    @Bean
+    ReadOnlyQueryFactory readOnlyQueryFactory(final EntityManager em, final QueryMemo queryMemo) {
+        return new ReadOnlyQueryFactory(em, queryMemo);
+    }
+
 }
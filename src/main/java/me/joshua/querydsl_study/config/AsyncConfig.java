@@ -0,0 +1,56 @@
+package me.joshua.querydsl_study.config;
+
+import me.joshua.querydsl_study.support.DataSourceRouting;
+import me.joshua.querydsl_study.support.NPlusOneDetector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * 스프링 MVC 비동기 요청 설정
+ *
+ * count 쿼리용 Executor 빈 (PagingConfig.countQueryExecutor) 이 있으므로 스프링 부트의 기본 applicationTaskExecutor 는 만들어지지 않는다.
+ * 그러면 StreamingResponseBody / Callable 이 요청마다 스레드를 새로 만드는 SimpleAsyncTaskExecutor 로 실행되므로
+ * 크기가 정해진 풀을 직접 지정한다. (CompletableFuture 반환은 BoundedQueryExecutor 가 실행한다.)
+ * 요청의 N+1 감지 범위와 복제 지연 클라이언트는 작업 스레드로 넘긴다. (NPlusOneDetector.propagate, DataSourceRouting.propagate)
+ */
+@Configuration
+public class AsyncConfig implements WebMvcConfigurer {
+
+    private final ThreadPoolTaskExecutor mvcTaskExecutor;
+
+    private final Duration timeout;
+
+    public AsyncConfig(@Value("${querydsl-study.async.mvc-threads:8}") final int threads,
+                       @Value("${querydsl-study.async.request-timeout:30s}") final Duration timeout,
+                       final NPlusOneDetector nPlusOneDetector) {
+        this.mvcTaskExecutor = newMvcTaskExecutor(threads);
+        this.mvcTaskExecutor.setTaskDecorator(task -> DataSourceRouting.propagate(nPlusOneDetector.propagate(task)));
+        this.timeout = timeout;
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor mvcTaskExecutor() {
+        return mvcTaskExecutor;
+    }
+
+    @Override
+    public void configureAsyncSupport(final AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(mvcTaskExecutor);
+        configurer.setDefaultTimeout(timeout.toMillis());
+    }
+
+    private static ThreadPoolTaskExecutor newMvcTaskExecutor(final int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(threads * 16);
+        executor.setThreadNamePrefix("mvc-async-");
+        return executor;
+    }
+}
@@ -0,0 +1,33 @@
+package me.joshua.querydsl_study.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import me.joshua.querydsl_study.support.AdaptivePoolSizer;
+import me.joshua.querydsl_study.support.HikariPools;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * querydsl-study.datasource.adaptive.enabled=true 이면 커넥션 대기 시간에 따라 풀 크기를 조절한다.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty (prefix = "querydsl-study.datasource.adaptive", name = "enabled", havingValue = "true")
+public class DataSourceMetricsConfig {
+
+    @Bean
+    public AdaptivePoolSizer adaptivePoolSizer(final List<DataSource> dataSources,
+                                               final MeterRegistry registry,
+                                               @Value("${querydsl-study.datasource.adaptive.target-wait:20ms}") final Duration targetWait,
+                                               @Value("${querydsl-study.datasource.adaptive.min-size:10}") final int minSize,
+                                               @Value("${querydsl-study.datasource.adaptive.max-size:50}") final int maxSize,
+                                               @Value("${querydsl-study.datasource.adaptive.step:5}") final int step) {
+        return new AdaptivePoolSizer(HikariPools.find(dataSources), registry, targetWait, minSize, maxSize, step);
+    }
+}
@@ -0,0 +1,24 @@
+package me.joshua.querydsl_study.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class PagingConfig {
+
+    /**
+     * count 쿼리를 content 쿼리와 동시에 실행하기 위한 스레드 풀
+     * 스레드 하나가 커넥션 하나를 점유하므로 커넥션 풀 크기보다 작게 잡는다.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor countQueryExecutor(@Value("${querydsl-study.paging.count-threads:4}") final int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(threads * 16);
+        executor.setThreadNamePrefix("count-query-");
+        return executor;
+    }
+}
@@ -0,0 +1,72 @@
+package me.joshua.querydsl_study.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import me.joshua.querydsl_study.support.ReplicaRoutingDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * 읽기 / 쓰기 분리
+ *
+ * @Transactional(readOnly = true) 와 읽기 전용 트랜잭션에서 실행되는 QueryDSL 조회는 replica 로,
+ * 그 외에는 primary 로 보낸다. 이 설정이 켜지면 스프링 부트의 기본 DataSource 설정은 사용하지 않는다.
+ */
+@Configuration
+@EnableConfigurationProperties (RoutingDataSourceProperties.class)
+@ConditionalOnProperty (prefix = "querydsl-study.datasource.routing", name = "enabled", havingValue = "true")
+public class RoutingDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties (prefix = "spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(final DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(final HikariDataSource primaryDataSource,
+                                 final DataSourceProperties primaryProperties,
+                                 final RoutingDataSourceProperties properties) {
+        List<RoutingDataSourceProperties.Replica> replicaProperties = properties.getReplicas();
+        List<DataSource> replicas = IntStream.range(0, replicaProperties.size())
+                .mapToObj(i -> replica(primaryProperties, replicaProperties.get(i), i))
+                .collect(Collectors.toList());
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(
+                primaryDataSource,
+                replicas,
+                properties.getRouting().getStrategy(),
+                properties.getRouting().getReplicationLag());
+
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    private static DataSource replica(final DataSourceProperties primary,
+                                      final RoutingDataSourceProperties.Replica replica,
+                                      final int index) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica-" + index);
+        dataSource.setDriverClassName(primary.determineDriverClassName());
+        dataSource.setJdbcUrl(replica.getUrl());
+        dataSource.setUsername(replica.getUsername() != null ? replica.getUsername() : primary.determineUsername());
+        dataSource.setPassword(replica.getPassword() != null ? replica.getPassword() : primary.determinePassword());
+        dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+}
@@ -0,0 +1,51 @@
+package me.joshua.querydsl_study.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import me.joshua.querydsl_study.support.ReplicaRoutingDataSource.Strategy;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * querydsl-study.datasource.routing.enabled=true 일 때만 사용한다.
+ * primary 는 spring.datasource 설정을 그대로 사용한다.
+ */
+@Getter
+@Setter
+@ConfigurationProperties (prefix = "querydsl-study.datasource")
+public class RoutingDataSourceProperties {
+
+    private Routing routing = new Routing();
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Routing {
+
+        private boolean enabled;
+
+        private Strategy strategy = Strategy.ROUND_ROBIN;
+
+        /**
+         * 쓰기 이후 이 시간 동안의 읽기는 primary 로 보낸다.
+         */
+        private Duration replicationLag = Duration.ZERO;
+    }
+
+    @Getter
+    @Setter
+    public static class Replica {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,44 @@
+package me.joshua.querydsl_study.controller;
+
+import lombok.RequiredArgsConstructor;
+import me.joshua.querydsl_study.dto.MemberDto;
+import me.joshua.querydsl_study.repository.MemberQueryRepository;
+import me.joshua.querydsl_study.support.BoundedQueryExecutor;
+import me.joshua.querydsl_study.support.KeysetPage;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * MemberController 의 조회 API 를 BoundedQueryExecutor 에서 실행하는 비동기 버전
+ * 요청 스레드는 JDBC 호출을 기다리지 않고 바로 반환되고, 동시 조회 수를 넘으면 503 을 응답한다.
+ */
+@RestController
+@RequiredArgsConstructor
+public class AsyncMemberController {
+
+    private final MemberQueryRepository memberQueryRepository;
+
+    private final BoundedQueryExecutor boundedQueryExecutor;
+
+    @GetMapping("/v1/async/members/by-username/{username}")
+    public CompletableFuture<MemberDto> findByUsername (@PathVariable String username) {
+        return boundedQueryExecutor.submit(() -> memberQueryRepository.findDtoByUsername(username));
+    }
+
+    @GetMapping("/v1/async/members/keyset")
+    public CompletableFuture<KeysetPage<MemberDto>> keysetPage (@RequestParam(defaultValue = "20") int size,
+                                                                @RequestParam(required = false) String token) {
+        return boundedQueryExecutor.submit(() -> memberQueryRepository.findPageOrderByAgeDesc(size, token));
+    }
+
+    @GetMapping("/v1/async/members/page")
+    public CompletableFuture<Page<MemberDto>> page (Pageable pageable) {
+        return boundedQueryExecutor.submit(() -> memberQueryRepository.findPage(pageable));
+    }
+}
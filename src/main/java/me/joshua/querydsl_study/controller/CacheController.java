@@ -0,0 +1,21 @@
+package me.joshua.querydsl_study.controller;
+
+import lombok.RequiredArgsConstructor;
+import me.joshua.querydsl_study.service.CacheStatisticsService;
+import me.joshua.querydsl_study.service.CacheStatisticsService.RegionStats;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+public class CacheController {
+
+    private final CacheStatisticsService cacheStatisticsService;
+
+    @GetMapping("/v1/cache/stats")
+    public Map<String, RegionStats> stats () {
+        return cacheStatisticsService.findAll();
+    }
+}
@@ -0,0 +1,76 @@
+package me.joshua.querydsl_study.controller;
+
+import lombok.RequiredArgsConstructor;
+import me.joshua.querydsl_study.dto.MemberDto;
+import me.joshua.querydsl_study.dto.MemberSearchCondition;
+import me.joshua.querydsl_study.dto.MemberTeamDto;
+import me.joshua.querydsl_study.repository.MemberQueryRepository;
+import me.joshua.querydsl_study.service.ExportFormat;
+import me.joshua.querydsl_study.service.MemberBulkService;
+import me.joshua.querydsl_study.service.MemberExportService;
+import me.joshua.querydsl_study.support.KeysetPage;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class MemberController {
+
+    private final MemberQueryRepository memberQueryRepository;
+
+    private final MemberExportService memberExportService;
+
+    private final MemberBulkService memberBulkService;
+
+    @GetMapping("/v1/members/by-username/{username}")
+    public MemberDto findByUsername (@PathVariable String username) {
+        return memberQueryRepository.findDtoByUsername(username);
+    }
+
+    @GetMapping("/v1/members/keyset")
+    public KeysetPage<MemberDto> keysetPage (@RequestParam(defaultValue = "20") int size,
+                                             @RequestParam(required = false) String token) {
+        return memberQueryRepository.findPageOrderByAgeDesc(size, token);
+    }
+
+    @GetMapping("/v1/members/page")
+    public Page<MemberDto> page (Pageable pageable) {
+        return memberQueryRepository.findPage(pageable);
+    }
+
+    @GetMapping("/v1/members/search")
+    public Page<MemberTeamDto> search (MemberSearchCondition condition, Pageable pageable) {
+        return memberQueryRepository.search(condition, pageable);
+    }
+
+    /**
+     * 회원 전체를 ndjson / csv 로 내려준다.
+     * 응답은 별도 스레드에서 chunk 단위로 쓰이므로 회원 수와 관계없이 메모리를 일정하게 사용한다.
+     */
+    @GetMapping("/v1/members/export")
+    public ResponseEntity<StreamingResponseBody> export (@RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat = ExportFormat.from(format);
+
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=members." + exportFormat.getExtension())
+                .body(out -> memberExportService.export(exportFormat, out));
+    }
+
+    @PostMapping("/v1/members/bulk")
+    public int bulkSave (@RequestBody List<MemberDto> members,
+                         @RequestParam(required = false) Long teamId) {
+        return memberBulkService.saveMembers(members, teamId);
+    }
+}
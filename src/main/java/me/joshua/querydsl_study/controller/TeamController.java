@@ -0,0 +1,51 @@
+package me.joshua.querydsl_study.controller;
+
+import lombok.RequiredArgsConstructor;
+import me.joshua.querydsl_study.dto.MemberDto;
+import me.joshua.querydsl_study.repository.MemberQueryRepository;
+import me.joshua.querydsl_study.support.TeamStats;
+import me.joshua.querydsl_study.support.TeamStatsRegistry;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+    private final TeamStatsRegistry teamStatsRegistry;
+
+    private final MemberQueryRepository memberQueryRepository;
+
+    @GetMapping("/v1/teams/stats")
+    public List<TeamStats> stats () {
+        return teamStatsRegistry.findAll();
+    }
+
+    @GetMapping("/v1/teams/{teamId}/members")
+    public List<MemberDto> members (@PathVariable Long teamId) {
+        return memberQueryRepository.findDtosByTeamId(teamId);
+    }
+
+    /**
+     * members 와 같은 응답을 ResultSet 에서 바로 응답 스트림으로 쓴다. (DTO / List / 응답 byte[] 를 만들지 않는다.)
+     */
+    @GetMapping("/v1/teams/{teamId}/members/stream")
+    public ResponseEntity<StreamingResponseBody> streamMembers (@PathVariable Long teamId) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> memberQueryRepository.writeDtosByTeamId(teamId, out));
+    }
+
+    @GetMapping("/v1/teams/{teamId}/users/stream")
+    public ResponseEntity<StreamingResponseBody> streamUsers (@PathVariable Long teamId) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> memberQueryRepository.writeUsersByTeamId(teamId, out));
+    }
+}
@@ -1,5 +1,6 @@
 package me.joshua.querydsl_study.dto;
 
+import com.querydsl.core.annotations.QueryProjection;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -11,6 +12,12 @@ public class MemberDto {
 
     private int age;
 
+    /**
+     * compileQuerydsl 이 QMemberDto 를 생성한다.
+     * Projections.bean / fields 처럼 행마다 setter, 필드를 찾지 않고 생성자를 바로 호출하며,
+     * 인자 타입이 맞지 않으면 런타임이 아니라 컴파일 시점에 오류가 난다.
+     */
+    @QueryProjection
     public MemberDto(final String username, final int age) {
         this.username = username;
         this.age = age;
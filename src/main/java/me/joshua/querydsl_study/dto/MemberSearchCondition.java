@@ -0,0 +1,18 @@
+package me.joshua.querydsl_study.dto;
+
+import lombok.Data;
+
+/**
+ * 회원 검색 조건 : 값이 없는 (null, 공백) 조건은 무시한다.
+ */
+@Data
+public class MemberSearchCondition {
+
+    private String username;
+
+    private String teamName;
+
+    private Integer ageGoe;
+
+    private Integer ageLoe;
+}
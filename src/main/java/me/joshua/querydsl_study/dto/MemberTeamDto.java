@@ -0,0 +1,29 @@
+package me.joshua.querydsl_study.dto;
+
+import com.querydsl.core.annotations.QueryProjection;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class MemberTeamDto {
+
+    private Long memberId;
+
+    private String username;
+
+    private int age;
+
+    private Long teamId;
+
+    private String teamName;
+
+    @QueryProjection
+    public MemberTeamDto(final Long memberId, final String username, final int age, final Long teamId, final String teamName) {
+        this.memberId = memberId;
+        this.username = username;
+        this.age = age;
+        this.teamId = teamId;
+        this.teamName = teamName;
+    }
+}
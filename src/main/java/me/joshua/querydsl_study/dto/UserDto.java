@@ -1,15 +1,20 @@
 package me.joshua.querydsl_study.dto;
 
-import lombok.AllArgsConstructor;
+import com.querydsl.core.annotations.QueryProjection;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 public class UserDto {
 
     private String name;
 
     private String age;
+
+    @QueryProjection
+    public UserDto(final String name, final String age) {
+        this.name = name;
+        this.age = age;
+    }
 }
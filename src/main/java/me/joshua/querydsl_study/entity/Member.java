@@ -1,23 +1,72 @@
 package me.joshua.querydsl_study.entity;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import javax.persistence.*;
 
+/**
+ * Team.members 컬렉션 캐시에는 회원 id 만 저장되므로 회원 엔티티도 캐시해야
+ * 컬렉션 캐시를 읽을 때 회원을 한 명씩 다시 조회하지 않는다.
+ *
+ * 인덱스 (QueryPlanValidator 로 등록된 쿼리가 인덱스를 타는지 확인한다.)
+ * - username, age : MemberDto (username, age) 프로젝션을 테이블 없이 인덱스만 읽는다. (covering, findDtoByUsername)
+ * - age, member_id : 나이 조건과 나이 내림차순 keyset 페이징 (age desc, id desc)
+ * - team_id, age : 팀 조인 (외래키) 과 팀 + 나이 범위 검색
+ *
+ * username 은 natural id 이다. (유일 제약조건이 생긴다.)
+ * username 만으로 찾는 조회 (natural id 조회 username -> id, 중복 검사) 는 유일 제약조건의 인덱스가 처리한다.
+ * 앞 컬럼이 username, age 인덱스와 겹치지만 유일 인덱스에는 age 가 없어 covering 이 안되므로 둘 다 둔다.
+ * username -> id 대응은 natural id 캐시 (Member##NaturalId 영역) 에 저장되므로
+ * MemberQueryRepository.findByUsername 은 두 캐시가 모두 맞으면 SQL 없이 끝난다.
+ */
 @Entity
+@NaturalIdCache
+@Table (indexes = {
+        @Index (name = "idx_member_username_age", columnList = "username, age"),
+        @Index (name = "idx_member_age_id", columnList = "age, member_id"),
+        @Index (name = "idx_member_team_id_age", columnList = "team_id, age")
+})
+@Cacheable
+@Cache (usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter @Setter
 @NoArgsConstructor (access = AccessLevel.PROTECTED)
 @ToString (of = {"id", "username", "age"})
 public class Member {
+    /**
+     * allocationSize 만큼 시퀀스를 한 번에 확보(pooled)해서 insert 마다 시퀀스를 조회하지 않는다.
+     * IDENTITY 전략은 insert 를 해야 id 를 알 수 있어서 JDBC batch insert 가 불가능하다.
+     */
     @Id
-    @GeneratedValue
+    @GeneratedValue (strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @SequenceGenerator (name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 100)
     @Column (name = "member_id")
     private Long id;
 
+    /**
+     * 이름 변경을 허용한다. 변경이 커밋되면 natural id 캐시의 이전 이름은 지워지고,
+     * 같은 트랜잭션 안에서는 flush 전이라도 새 이름으로 조회된다.
+     */
+    @NaturalId (mutable = true)
     private String username;
 
     private int age;
 
+    /**
+     * 낙관적 락. 다른 트랜잭션이 먼저 바꾼 회원을 예전 값으로 덮어쓰지 못하게 한다.
+     * 통계만을 위한 것이 아니라 회원 전체의 동작이 바뀐다.
+     * - 모든 회원 수정은 where version = ? 로 실행되고, 같은 회원을 동시에 고치면 나중에 커밋하는 쪽이
+     *   ObjectOptimisticLockingFailureException 으로 실패한다. (마지막 쓰기가 이기지 않는다. 필요하면 호출하는 쪽에서 다시 시도한다.)
+     * - JPQL 벌크 수정은 직접 올려야 한다. (MemberBulkMutationService)
+     * 이렇게 해야 TeamStatsRegistry 가 가정하는 것처럼 변경 전 팀이 항상 커밋된 값과 같다.
+     */
+    @Version
+    @Setter (AccessLevel.NONE)
+    private long version;
+
     @ManyToOne (fetch = FetchType.LAZY)
     @JoinColumn (name = "team_id")
     private Team team;
@@ -39,6 +88,9 @@ public class Member {
     }
 
     public void changeTeam(final Team team) {
+        if (this.team != null) {
+            this.team.getMembers().remove(this);
+        }
         this.team = team;
         team.getMembers().add(this);
     }
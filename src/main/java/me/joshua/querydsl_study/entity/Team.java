@@ -1,26 +1,45 @@
 package me.joshua.querydsl_study.entity;
 
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.OneToMany;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * 클래스의 @BatchSize 는 Member.team 프록시를, 컬렉션의 @BatchSize 는 Team.members 를
+ * 한 번에 최대 size 개씩 IN 절로 초기화한다. (N+1 -> 1 + N/size)
+ */
 @Entity
+@Table (indexes = @Index (name = "idx_team_name", columnList = "name"))
+@Cacheable
+@Cache (usage = CacheConcurrencyStrategy.READ_WRITE)
+@BatchSize (size = 100)
 @Getter @Setter
 @NoArgsConstructor (access = AccessLevel.PROTECTED)
 @ToString (of = {"id", "name"})
 public class Team {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue (strategy = GenerationType.SEQUENCE, generator = "team_seq_generator")
+    @SequenceGenerator (name = "team_seq_generator", sequenceName = "team_seq", allocationSize = 100)
     private Long id;
 
     private String name;
 
+    @Cache (usage = CacheConcurrencyStrategy.READ_WRITE)
+    @BatchSize (size = 100)
     @OneToMany (mappedBy = "team")
     private List<Member> members = new ArrayList<>();
 
@@ -0,0 +1,267 @@
+package me.joshua.querydsl_study.repository;
+
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import me.joshua.querydsl_study.dto.MemberDto;
+import me.joshua.querydsl_study.dto.MemberSearchCondition;
+import me.joshua.querydsl_study.dto.MemberTeamDto;
+import me.joshua.querydsl_study.dto.QMemberDto;
+import me.joshua.querydsl_study.dto.QMemberTeamDto;
+import me.joshua.querydsl_study.entity.Member;
+import me.joshua.querydsl_study.support.JsonRowWriters;
+import me.joshua.querydsl_study.support.JsonStreamingQueryExecutor;
+import me.joshua.querydsl_study.support.KeysetPage;
+import me.joshua.querydsl_study.support.KeysetPaginator;
+import me.joshua.querydsl_study.support.PagingQueryExecutor;
+import me.joshua.querydsl_study.support.PreparedQuery;
+import me.joshua.querydsl_study.support.QueryPlanRegistry;
+import org.hibernate.Session;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManager;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import static me.joshua.querydsl_study.entity.QMember.member;
+import static me.joshua.querydsl_study.entity.QTeam.team;
+
+/**
+ * 조회 전용 리포지토리
+ * 읽기 전용 트랜잭션으로 실행되므로 읽기 / 쓰기 분리가 켜져 있으면 replica 에서 조회한다.
+ * (쓰기 트랜잭션 안에서 호출되면 그 트랜잭션에 참여하므로 primary 에서 조회한다.)
+ */
+@Repository
+@Transactional (readOnly = true)
+public class MemberQueryRepository {
+
+    private static final Param<String> USERNAME = new Param<>(String.class, "username");
+
+    private static final OrderSpecifier<?>[] AGE_DESC = {member.age.desc(), member.id.desc()};
+
+    private final EntityManager em;
+
+    private final JPAQueryFactory queryFactory;
+
+    private final KeysetPaginator keysetPaginator;
+
+    private final PagingQueryExecutor pagingQueryExecutor;
+
+    private final JsonStreamingQueryExecutor jsonStreamingQueryExecutor;
+
+    private final PreparedQuery<MemberDto> findDtoByUsername;
+
+    public MemberQueryRepository(final EntityManager em,
+                                 final JPAQueryFactory queryFactory,
+                                 final KeysetPaginator keysetPaginator,
+                                 final PagingQueryExecutor pagingQueryExecutor,
+                                 final JsonStreamingQueryExecutor jsonStreamingQueryExecutor,
+                                 final QueryPlanRegistry queryPlanRegistry) {
+        this.em = em;
+        this.queryFactory = queryFactory;
+        this.keysetPaginator = keysetPaginator;
+        this.pagingQueryExecutor = pagingQueryExecutor;
+        this.jsonStreamingQueryExecutor = jsonStreamingQueryExecutor;
+        this.findDtoByUsername = PreparedQuery.of(em, queryFactory
+                .select(new QMemberDto(member.username, member.age))
+                .from(member)
+                .where(member.username.eq(USERNAME)));
+
+        // findByUsername 이 캐시에 없을 때 하이버네이트가 실행하는 natural id 조회 (username -> id)
+        queryPlanRegistry.register("member.findByUsername", () -> queryFactory
+                .select(member.id)
+                .from(member)
+                .where(member.username.eq("member1")));
+        queryPlanRegistry.register("member.findDtoByUsername", () -> queryFactory
+                .select(new QMemberDto(member.username, member.age))
+                .from(member)
+                .where(member.username.eq("member1")));
+        queryPlanRegistry.register("member.search.username", () -> searchContent("member1", null, null, null));
+        queryPlanRegistry.register("member.search.age", () -> searchContent(null, null, 20, 30));
+        queryPlanRegistry.register("member.search.teamNameAndAge", () -> searchContent(null, "teamA", 20, 30));
+        queryPlanRegistry.register("member.findPageOrderByAgeDesc", () -> keysetPaginator.seek(
+                queryFactory.selectFrom(member), Arrays.asList(50, 100L), AGE_DESC));
+    }
+
+    /**
+     * 검색 경로에서 가장 많이 호출되므로 natural id 로 조회한다.
+     * 영속성 컨텍스트 -> natural id 캐시 (username -> id) -> 엔티티 캐시 순서로 찾고, 모두 없을 때만 SQL 을 실행한다.
+     * (select member_id from member where username = ? - username 유일 제약조건의 인덱스를 사용한다.)
+     */
+    public Member findByUsername(final String username) {
+        if (username == null) {
+            return null;
+        }
+        return em.unwrap(Session.class)
+                .bySimpleNaturalId(Member.class)
+                .load(username);
+    }
+
+    /**
+     * (username, age) 인덱스만 읽고 테이블은 읽지 않는다. (covering index)
+     */
+    public MemberDto findDtoByUsername(final String username) {
+        return findDtoByUsername.bind(USERNAME, username).fetchOne();
+    }
+
+    /**
+     * 나이 내림차순, id 내림차순 keyset 페이징
+     * offset 을 쓰지 않으므로 깊은 페이지도 첫 페이지와 비용이 같다.
+     */
+    public KeysetPage<MemberDto> findPageOrderByAgeDesc(final int size, final String token) {
+        KeysetPage<Member> page = keysetPaginator.fetch(
+                queryFactory.selectFrom(member),
+                size,
+                token,
+                m -> new Object[]{m.getAge(), m.getId()},
+                AGE_DESC);
+
+        return page.map(m -> new MemberDto(m.getUsername(), m.getAge()));
+    }
+
+    /**
+     * offset 페이징 (total 포함)
+     * fetchResults() 와 달리 count 쿼리를 생략할 수 있으면 생략하고, 같은 total 은 캐시한다.
+     */
+    public Page<MemberDto> findPage(final Pageable pageable) {
+        JPAQuery<MemberDto> content = queryFactory
+                .select(new QMemberDto(member.username, member.age))
+                .from(member)
+                .orderBy(member.id.desc());
+
+        JPAQuery<Long> count = queryFactory
+                .select(member.count())
+                .from(member);
+
+        return pagingQueryExecutor.fetchPage(content, count, pageable);
+    }
+
+    /**
+     * 팀 회원 목록 (id 순)
+     */
+    public List<MemberDto> findDtosByTeamId(final Long teamId) {
+        return dtosByTeamId(teamId).fetch();
+    }
+
+    /**
+     * findDtosByTeamId 와 같은 결과를 DTO 를 만들지 않고 ResultSet 에서 바로 JSON 배열로 쓴다.
+     * 트랜잭션은 JsonStreamingQueryExecutor 가 동시 실행 자리를 얻은 뒤에 시작한다. (SUPPORTS)
+     * @return 쓴 행 수
+     */
+    @Transactional (readOnly = true, propagation = Propagation.SUPPORTS)
+    public long writeDtosByTeamId(final Long teamId, final OutputStream out) {
+        return jsonStreamingQueryExecutor.write(dtosByTeamId(teamId), JsonRowWriters.MEMBER_DTO, out);
+    }
+
+    /**
+     * 팀 회원 목록을 UserDto (name, age) 모양의 JSON 배열로 쓴다.
+     * @return 쓴 행 수
+     */
+    @Transactional (readOnly = true, propagation = Propagation.SUPPORTS)
+    public long writeUsersByTeamId(final Long teamId, final OutputStream out) {
+        JPAQuery<?> users = queryFactory
+                .select(member.username, member.age)
+                .from(member)
+                .where(member.team.id.eq(teamId))
+                .orderBy(member.id.asc());
+        return jsonStreamingQueryExecutor.write(users, JsonRowWriters.USER_DTO, out);
+    }
+
+    private JPAQuery<MemberDto> dtosByTeamId(final Long teamId) {
+        return queryFactory
+                .select(new QMemberDto(member.username, member.age))
+                .from(member)
+                .where(member.team.id.eq(teamId))
+                .orderBy(member.id.asc());
+    }
+
+    /**
+     * 회원 검색 (조건이 없는 항목은 무시한다.)
+     *
+     * 조건은 항상 username -> team.name -> age 순서로 붙인다.
+     * 조건 조합마다 SQL 문자열이 하나로 정해져서 쿼리 플랜 캐시를 재사용하고, 인덱스가 있는 조건이 앞에 온다.
+     * 팀 이름 조건이 있으면 inner join 으로 바꿔서 팀 이름 인덱스 -> member.team_id 인덱스 순서로 찾을 수 있게 하고,
+     * 없으면 팀 없는 회원도 보이도록 left join 한다. count 쿼리는 팀 이름 조건이 없으면 조인하지 않는다.
+     * ageGoe > ageLoe 처럼 결과가 없는 조건은 쿼리를 실행하지 않는다.
+     */
+    public Page<MemberTeamDto> search(final MemberSearchCondition condition, final Pageable pageable) {
+        String username = normalize(condition.getUsername());
+        String teamName = normalize(condition.getTeamName());
+        Integer ageGoe = condition.getAgeGoe();
+        Integer ageLoe = condition.getAgeLoe();
+        if (ageGoe != null && ageLoe != null && ageGoe > ageLoe) {
+            return Page.empty(pageable);
+        }
+
+        JPAQuery<MemberTeamDto> content = searchContent(username, teamName, ageGoe, ageLoe);
+
+        JPAQuery<Long> count = queryFactory
+                .select(member.count())
+                .from(member);
+        if (teamName != null) {
+            count.join(member.team, team);
+        }
+        count.where(searchWhere(username, teamName, ageGoe, ageLoe));
+
+        return pagingQueryExecutor.fetchPage(content, count, pageable);
+    }
+
+    private JPAQuery<MemberTeamDto> searchContent(final String username,
+                                                  final String teamName,
+                                                  final Integer ageGoe,
+                                                  final Integer ageLoe) {
+        JPAQuery<MemberTeamDto> content = queryFactory
+                .select(new QMemberTeamDto(member.id, member.username, member.age, team.id, team.name))
+                .from(member);
+        if (teamName != null) {
+            content.join(member.team, team);
+        } else {
+            content.leftJoin(member.team, team);
+        }
+        return content
+                .where(searchWhere(username, teamName, ageGoe, ageLoe))
+                .orderBy(member.id.desc());
+    }
+
+    private static Predicate[] searchWhere(final String username,
+                                           final String teamName,
+                                           final Integer ageGoe,
+                                           final Integer ageLoe) {
+        return new Predicate[]{
+                usernameEq(username),
+                teamNameEq(teamName),
+                ageBetween(ageGoe, ageLoe)
+        };
+    }
+
+    private static String normalize(final String value) {
+        return StringUtils.hasText(value) ? value.trim() : null;
+    }
+
+    private static BooleanExpression usernameEq(final String username) {
+        return username != null ? member.username.eq(username) : null;
+    }
+
+    private static BooleanExpression teamNameEq(final String teamName) {
+        return teamName != null ? team.name.eq(teamName) : null;
+    }
+
+    private static BooleanExpression ageBetween(final Integer ageGoe, final Integer ageLoe) {
+        if (ageGoe != null && ageLoe != null) {
+            return ageGoe.equals(ageLoe) ? member.age.eq(ageGoe) : member.age.between(ageGoe, ageLoe);
+        }
+        if (ageGoe != null) {
+            return member.age.goe(ageGoe);
+        }
+        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    }
+}
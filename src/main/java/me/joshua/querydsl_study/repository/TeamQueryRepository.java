@@ -0,0 +1,116 @@
+package me.joshua.querydsl_study.repository;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import me.joshua.querydsl_study.entity.Team;
+import me.joshua.querydsl_study.support.ColumnarQueryExecutor;
+import me.joshua.querydsl_study.support.ColumnarResult;
+import me.joshua.querydsl_study.support.PagingQueryExecutor;
+import me.joshua.querydsl_study.support.QueryMemo;
+import me.joshua.querydsl_study.support.QueryPlanRegistry;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import static me.joshua.querydsl_study.entity.QMember.member;
+import static me.joshua.querydsl_study.entity.QTeam.team;
+import static me.joshua.querydsl_study.support.ColumnarResult.ColumnType.*;
+
+/**
+ * 조회 전용 리포지토리
+ * 읽기 전용 트랜잭션으로 실행되므로 읽기 / 쓰기 분리가 켜져 있으면 replica 에서 조회한다.
+ * (쓰기 트랜잭션 안에서 호출되면 그 트랜잭션에 참여하므로 primary 에서 조회한다.)
+ */
+@Repository
+@Transactional (readOnly = true)
+public class TeamQueryRepository {
+
+    public static final String TEAM_BY_NAME_REGION = "team-by-name";
+
+    private final JPAQueryFactory queryFactory;
+
+    private final ColumnarQueryExecutor columnarQueryExecutor;
+
+    private final QueryMemo queryMemo;
+
+    private final PagingQueryExecutor pagingQueryExecutor;
+
+    public TeamQueryRepository(final JPAQueryFactory queryFactory,
+                               final ColumnarQueryExecutor columnarQueryExecutor,
+                               final QueryPlanRegistry queryPlanRegistry,
+                               final QueryMemo queryMemo,
+                               final PagingQueryExecutor pagingQueryExecutor) {
+        this.queryFactory = queryFactory;
+        this.columnarQueryExecutor = columnarQueryExecutor;
+        this.queryMemo = queryMemo;
+        this.pagingQueryExecutor = pagingQueryExecutor;
+
+        queryPlanRegistry.register("team.findByName", () -> findByNameQuery("teamA"));
+    }
+
+    /**
+     * 팀 이름 조회는 자주 일어나지만 팀은 거의 바뀌지 않으므로 쿼리 캐시를 사용한다.
+     * 쿼리 캐시에는 결과 id 만 저장되고, 엔티티는 Team 2차 캐시에서 가져온다.
+     * Team 테이블이 수정되면 하이버네이트가 캐시된 결과를 자동으로 무효화한다.
+     * 같은 트랜잭션에서 다시 호출하면 쿼리 캐시도 거치지 않고 QueryMemo 에서 돌려준다.
+     */
+    public Team findByName(final String name) {
+        return queryMemo.fetchFirst(findByNameQuery(name));
+    }
+
+    private JPAQuery<Team> findByNameQuery(final String name) {
+        return queryFactory
+                .selectFrom(team)
+                .where(team.name.eq(name))
+                .setHint(QueryHints.CACHEABLE, true)
+                .setHint(QueryHints.CACHE_REGION, TEAM_BY_NAME_REGION);
+    }
+
+    /**
+     * 이름이 namePrefix 로 시작하는 팀을 회원과 함께 페이징한다. (이름, id 순)
+     * team.members 를 fetch join 하면서 offset / limit 을 주면 메모리에서 페이징하므로
+     * 팀 id 를 먼저 페이징하고 그 팀들만 회원과 함께 조회한다.
+     */
+    public Page<Team> findPageWithMembers(final String namePrefix, final Pageable pageable) {
+        JPAQuery<Long> ids = queryFactory
+                .select(team.id)
+                .from(team)
+                .where(team.name.startsWith(namePrefix))
+                .orderBy(team.name.asc(), team.id.asc());
+
+        JPAQuery<Long> count = queryFactory
+                .select(team.count())
+                .from(team)
+                .where(team.name.startsWith(namePrefix));
+
+        return pagingQueryExecutor.fetchPageByIds(ids, count, pageable,
+                teamIds -> queryFactory
+                        .selectFrom(team)
+                        .leftJoin(team.members, member).fetchJoin()
+                        .where(team.id.in(teamIds))
+                        .fetch(),
+                Team::getId);
+    }
+
+    /**
+     * 팀별 회원 나이 통계를 컬럼 단위로 조회한다.
+     * 0: 팀 이름(dictionary), 1: 회원 수(long), 2: 나이 합(long), 3: 나이 평균(double), 4: 최대(int), 5: 최소(int)
+     */
+    public ColumnarResult findAgeStatsColumns() {
+        return columnarQueryExecutor.fetch(
+                queryFactory
+                        .select(team.name,
+                                member.count(),
+                                member.age.sum(),
+                                member.age.avg(),
+                                member.age.max(),
+                                member.age.min())
+                        .from(member)
+                        .join(member.team, team)
+                        .groupBy(team.name)
+                        .orderBy(team.name.asc()),
+                DICTIONARY, LONG, LONG, DOUBLE, INT, INT);
+    }
+}
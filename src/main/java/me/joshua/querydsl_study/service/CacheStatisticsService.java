@@ -0,0 +1,80 @@
+package me.joshua.querydsl_study.service;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import me.joshua.querydsl_study.entity.Member;
+import me.joshua.querydsl_study.entity.Team;
+import me.joshua.querydsl_study.repository.TeamQueryRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 2차 캐시 / 쿼리 캐시 영역별 hit, miss, put 통계 (hibernate.generate_statistics 필요)
+ */
+@Service
+public class CacheStatisticsService {
+
+    private static final String[] DOMAIN_REGIONS = {
+            Team.class.getName(),
+            Team.class.getName() + ".members",
+            Member.class.getName(),
+            Member.class.getName() + "##NaturalId"
+    };
+
+    private static final String[] QUERY_REGIONS = {
+            TeamQueryRepository.TEAM_BY_NAME_REGION
+    };
+
+    private final Statistics statistics;
+
+    public CacheStatisticsService(final EntityManagerFactory emf) {
+        this.statistics = emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    public Map<String, RegionStats> findAll() {
+        Map<String, RegionStats> result = new LinkedHashMap<>();
+        for (String region : DOMAIN_REGIONS) {
+            result.put(region, RegionStats.of(statistics.getDomainDataRegionStatistics(region)));
+        }
+        for (String region : QUERY_REGIONS) {
+            CacheRegionStatistics query = statistics.getQueryRegionStatistics(region);
+            if (query != null) {
+                result.put(region, RegionStats.of(query));
+            }
+        }
+        return result;
+    }
+
+    @Getter
+    @RequiredArgsConstructor (access = AccessLevel.PRIVATE)
+    public static class RegionStats {
+
+        private final long hitCount;
+
+        private final long missCount;
+
+        private final long putCount;
+
+        private final long elementCount;
+
+        static RegionStats of(final CacheRegionStatistics statistics) {
+            return new RegionStats(
+                    statistics.getHitCount(),
+                    statistics.getMissCount(),
+                    statistics.getPutCount(),
+                    statistics.getElementCountInMemory());
+        }
+
+        public double getHitRatio() {
+            long total = hitCount + missCount;
+            return total == 0 ? 0 : (double) hitCount / total;
+        }
+    }
+}
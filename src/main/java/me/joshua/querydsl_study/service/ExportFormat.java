@@ -0,0 +1,42 @@
+package me.joshua.querydsl_study.service;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.Arrays;
+
+@Getter
+public enum ExportFormat {
+
+    NDJSON("ndjson", MediaType.parseMediaType("application/x-ndjson")),
+    CSV("csv", MediaType.parseMediaType("text/csv"));
+
+    private final String extension;
+
+    private final MediaType mediaType;
+
+    ExportFormat(final String extension, final MediaType mediaType) {
+        this.extension = extension;
+        this.mediaType = mediaType;
+    }
+
+    public static ExportFormat from(final String extension) {
+        return Arrays.stream(values())
+                .filter(format -> format.extension.equalsIgnoreCase(extension))
+                .findFirst()
+                .orElseThrow(() -> new UnsupportedFormatException(extension));
+    }
+
+    /**
+     * 클라이언트가 보낸 format 파라미터가 잘못된 경우 (400)
+     */
+    @ResponseStatus (HttpStatus.BAD_REQUEST)
+    public static class UnsupportedFormatException extends IllegalArgumentException {
+
+        public UnsupportedFormatException(final String extension) {
+            super("지원하지 않는 형식입니다. format = " + extension);
+        }
+    }
+}
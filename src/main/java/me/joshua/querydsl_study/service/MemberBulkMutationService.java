@@ -0,0 +1,277 @@
+package me.joshua.querydsl_study.service;
+
+import com.querydsl.core.support.ReplaceVisitor;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.PathMetadata;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.TemplateExpression;
+import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import me.joshua.querydsl_study.entity.Member;
+import me.joshua.querydsl_study.entity.Team;
+import me.joshua.querydsl_study.support.TeamStatsRegistry;
+import org.hibernate.Hibernate;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.Entity;
+import javax.persistence.EntityManager;
+import javax.persistence.metamodel.EntityType;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static me.joshua.querydsl_study.entity.QMember.member;
+
+/**
+ * 벌크 수정 / 삭제
+ *
+ * 변경 감지(dirty checking)로 N 건을 수정하면 UPDATE 가 N 번 나간다.
+ * update() / delete() 는 SQL 한 번으로 처리하지만 영속성 컨텍스트를 무시하고 DB 에 바로 반영하기 때문에
+ * 이미 조회해 둔 엔티티는 예전 값을 그대로 가지고 있게 된다.
+ *
+ * 보통은 em.clear() 로 전부 비우지만, 그러면 이번 변경과 상관없는 엔티티까지 다시 조회해야 한다.
+ * 여기서는 영속성 컨텍스트에 올라와 있는 Member 중 실제로 영향을 받는 것만 골라서 refresh / detach 한다.
+ *
+ * 벌크 JPQL 은 조인을 쓸 수 없으므로 member.team.name.eq(..) 처럼 연관 엔티티를 거치는 조건 (암시적 조인) 은
+ * member.team.id in (select team.id from Team team where team.name = ..) 로 바꿔서 실행한다.
+ *
+ * 2차 캐시는 하이버네이트가 벌크 연산 시 해당 엔티티 영역을 자동으로 무효화한다. (BulkOperationCleanupAction)
+ * 쿼리 메모 (QueryMemo) 는 JPAQueryFactory 빈 (InvalidatingQueryFactory) 이 무효화하고,
+ * 팀 통계 (TeamStatsRegistry) 는 엔티티 이벤트가 발생하지 않으므로 직접 무효화한다.
+ */
+@Service
+public class MemberBulkMutationService {
+
+    private final EntityManager em;
+
+    private final JPAQueryFactory queryFactory;
+
+    private final TeamStatsRegistry teamStatsRegistry;
+
+    public MemberBulkMutationService(final EntityManager em,
+                                     final JPAQueryFactory queryFactory,
+                                     final TeamStatsRegistry teamStatsRegistry) {
+        this.em = em;
+        this.queryFactory = queryFactory;
+        this.teamStatsRegistry = teamStatsRegistry;
+    }
+
+    /**
+     * 조건에 맞는 회원의 나이를 amount 만큼 더한다.
+     * @return 수정된 행 수
+     */
+    @Transactional
+    public long addAge(final Predicate condition, final int amount) {
+        return update(condition, clause -> clause.set(member.age, member.age.add(amount)));
+    }
+
+    /**
+     * @param setter set 절을 지정한다. 예) clause -> clause.set(member.age, member.age.add(1))
+     * @return 수정된 행 수
+     */
+    @Transactional
+    public long update(final Predicate condition, final Function<JPAUpdateClause, JPAUpdateClause> setter) {
+        List<Member> affected = prepare(condition);
+
+        // 벌크 수정은 @Version 을 올리지 않으므로 직접 올린다. (이전 버전을 들고 있는 트랜잭션이 덮어쓰지 못하게)
+        long updated = setter.apply(queryFactory.update(member))
+                .set(member.version, member.version.add(1L))
+                .where(withoutImplicitJoins(condition))
+                .execute();
+        teamStatsRegistry.invalidateAfterCommit();
+
+        // 영속성 컨텍스트의 Member 를 DB 값으로 다시 채운다.
+        affected.forEach(em::refresh);
+        return updated;
+    }
+
+    /**
+     * @return 삭제된 행 수
+     */
+    @Transactional
+    public long delete(final Predicate condition) {
+        List<Member> affected = prepare(condition);
+
+        long deleted = queryFactory
+                .delete(member)
+                .where(withoutImplicitJoins(condition))
+                .execute();
+        teamStatsRegistry.invalidateAfterCommit();
+
+        // 삭제된 엔티티가 영속성 컨텍스트에 남아 있으면 안되므로 이미 로딩된 팀 회원 목록에서 빼고 분리한다.
+        affected.forEach(this::removeFromTeam);
+        affected.forEach(em::detach);
+        return deleted;
+    }
+
+    /**
+     * Member.changeTeam 처럼 Team.members 에서 뺀다.
+     * 로딩되지 않은 팀 / 컬렉션은 나중에 DB 에서 읽으므로 초기화하지 않고 건너뛴다.
+     */
+    private void removeFromTeam(final Member deleted) {
+        Team team = deleted.getTeam();
+        if (team != null && Hibernate.isInitialized(team) && Hibernate.isInitialized(team.getMembers())) {
+            team.getMembers().remove(deleted);
+        }
+    }
+
+    /**
+     * 벌크 연산 전에
+     * 1. 쓰기 지연된 변경을 DB 에 반영하고 (벌크 연산이 덮어쓰거나, 반대로 나중에 flush 되면서 벌크 결과를 덮어쓰지 않도록)
+     * 2. 영속성 컨텍스트에 있는 Member 중 이번 조건에 해당하는 것을 찾는다.
+     *
+     * 영속성 컨텍스트에 Member 가 없으면 추가 쿼리는 나가지 않는다.
+     */
+    private List<Member> prepare(final Predicate condition) {
+        em.flush();
+
+        Map<Long, Member> managed = managedMembers();
+        if (managed.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Long> affectedIds = queryFactory
+                .select(member.id)
+                .from(member)
+                .where(condition, member.id.in(managed.keySet()))
+                .fetch();
+
+        return affectedIds.stream()
+                .map(managed::get)
+                .collect(Collectors.toList());
+    }
+
+    private Predicate withoutImplicitJoins(final Predicate condition) {
+        return (Predicate) condition.accept(new ImplicitJoinRewriter(em), null);
+    }
+
+    private Map<Long, Member> managedMembers() {
+        Map.Entry<Object, EntityEntry>[] entries = em.unwrap(SessionImplementor.class)
+                .getPersistenceContextInternal()
+                .reentrantSafeEntityEntries();
+
+        Map<Long, Member> managed = new HashMap<>();
+        for (Map.Entry<Object, EntityEntry> entry : entries) {
+            if (entry.getKey() instanceof Member) {
+                Member managedMember = (Member) entry.getKey();
+                managed.put(managedMember.getId(), managedMember);
+            }
+        }
+        return managed;
+    }
+
+    /**
+     * 조건 (and / or / not 으로 묶인 각 비교) 에서 member.연관엔티티.속성 경로를 찾아서
+     * member.연관엔티티.id in (select 별칭.id from 연관엔티티 별칭 where 비교) 로 바꾼다.
+     * member.team.id 처럼 연관 엔티티의 id 만 쓰는 경로는 외래 키 컬럼이므로 그대로 둔다.
+     */
+    private static final class ImplicitJoinRewriter extends ReplaceVisitor<Void> {
+
+        private final EntityManager em;
+
+        private ImplicitJoinRewriter(final EntityManager em) {
+            this.em = em;
+        }
+
+        @Override
+        public Expression<?> visit(final Operation<?> expr, final Void context) {
+            if (expr.getOperator() == Ops.AND || expr.getOperator() == Ops.OR || expr.getOperator() == Ops.NOT) {
+                return super.visit(expr, context);
+            }
+
+            Set<Path<?>> associations = new LinkedHashSet<>();
+            collectJoinedAssociations(expr, associations);
+            if (associations.isEmpty()) {
+                return expr;
+            }
+            if (associations.size() > 1) {
+                throw new IllegalArgumentException("한 비교에서 여러 연관 엔티티를 거치는 조건은 벌크 연산에 쓸 수 없습니다. " + expr);
+            }
+
+            Path<?> association = associations.iterator().next();
+            String idName = idName(association.getType());
+            PathBuilder<?> alias = new PathBuilder<>(association.getType(), association.getMetadata().getName() + "Sub");
+            Expression<?> subCondition = expr.accept(new PathReplacer(association, alias), null);
+
+            return ExpressionUtils.in(
+                    ExpressionUtils.path(Object.class, association, idName),
+                    JPAExpressions.select(alias.get(idName)).from(alias).where((Predicate) subCondition));
+        }
+
+        /**
+         * member.X.Y 에서 X 가 엔티티이고 Y 가 X 의 id 가 아니면 X 를 조인이 필요한 연관으로 본다.
+         */
+        private void collectJoinedAssociations(final Expression<?> expr, final Set<Path<?>> associations) {
+            if (expr instanceof Operation) {
+                ((Operation<?>) expr).getArgs().forEach(arg -> collectJoinedAssociations(arg, associations));
+            } else if (expr instanceof TemplateExpression) {
+                for (Object arg : ((TemplateExpression<?>) expr).getArgs()) {
+                    if (arg instanceof Expression) {
+                        collectJoinedAssociations((Expression<?>) arg, associations);
+                    }
+                }
+            } else if (expr instanceof Path) {
+                Path<?> path = (Path<?>) expr;
+                Path<?> first = path;
+                while (first.getMetadata().getParent() != null && !first.getMetadata().getParent().equals(member)) {
+                    first = first.getMetadata().getParent();
+                }
+                // member 아래 경로가 아니거나 member.age 처럼 바로 아래 속성이면 조인이 필요 없다.
+                if (first.getMetadata().getParent() == null || first.equals(path) || !isEntity(first.getType())) {
+                    return;
+                }
+                boolean idOnly = path.getMetadata().getParent().equals(first)
+                        && path.getMetadata().getName().equals(idName(first.getType()));
+                if (!idOnly) {
+                    associations.add(first);
+                }
+            }
+        }
+
+        private static boolean isEntity(final Class<?> type) {
+            return type.isAnnotationPresent(Entity.class);
+        }
+
+        private String idName(final Class<?> type) {
+            EntityType<?> entityType = em.getMetamodel().entity(type);
+            return entityType.getId(entityType.getIdType().getJavaType()).getName();
+        }
+    }
+
+    /**
+     * from 경로를 to 로 바꾼다. (member.team.name -> teamSub.name)
+     */
+    private static final class PathReplacer extends ReplaceVisitor<Void> {
+
+        private final Path<?> from;
+
+        private final Path<?> to;
+
+        private PathReplacer(final Path<?> from, final Path<?> to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public Expression<?> visit(final Path<?> expr, final Void context) {
+            if (expr.equals(from)) {
+                return to;
+            }
+            return super.visit(expr, context);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package me.joshua.querydsl_study.service;
+
+import me.joshua.querydsl_study.dto.MemberDto;
+import me.joshua.querydsl_study.entity.Member;
+import me.joshua.querydsl_study.entity.Team;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+/**
+ * 대량 등록
+ *
+ * 1. 시퀀스는 allocationSize 단위로 미리 확보하므로 (pooled) 행마다 시퀀스를 조회하지 않는다.
+ * 2. hibernate.jdbc.batch_size + order_inserts 로 INSERT 를 batch_size 개씩 묶어서 한 번에 보낸다.
+ * 3. batch_size 마다 flush / clear 해서 영속성 컨텍스트가 커지지 않게 한다.
+ *
+ * 팀과의 연관관계는 changeTeam() 대신 setTeam() 으로만 건다.
+ * changeTeam() 은 team.getMembers() 컬렉션을 초기화하고 계속 쌓기 때문에 대량 등록에는 맞지 않다.
+ */
+@Service
+public class MemberBulkService {
+
+    private final EntityManager em;
+
+    private final int batchSize;
+
+    public MemberBulkService(final EntityManager em,
+                             @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}") final int batchSize) {
+        this.em = em;
+        this.batchSize = batchSize;
+    }
+
+    @Transactional
+    public int saveTeams(final List<String> names) {
+        for (int i = 0; i < names.size(); i++) {
+            em.persist(new Team(names.get(i)));
+            flushAndClearPerBatch(i + 1);
+        }
+        em.flush();
+        em.clear();
+        return names.size();
+    }
+
+    /**
+     * @param teamId 소속 팀, 없으면 null
+     */
+    @Transactional
+    public int saveMembers(final List<MemberDto> members, final Long teamId) {
+        Team team = teamReference(teamId);
+        for (int i = 0; i < members.size(); i++) {
+            MemberDto dto = members.get(i);
+            Member member = new Member(dto.getUsername(), dto.getAge());
+            member.setTeam(team);
+            em.persist(member);
+
+            if (flushAndClearPerBatch(i + 1)) {
+                // clear 이후에는 팀 프록시도 준영속 상태이므로 다시 가져온다.
+                team = teamReference(teamId);
+            }
+        }
+        em.flush();
+        em.clear();
+        return members.size();
+    }
+
+    private Team teamReference(final Long teamId) {
+        return teamId == null ? null : em.getReference(Team.class, teamId);
+    }
+
+    private boolean flushAndClearPerBatch(final int count) {
+        if (count % batchSize != 0) {
+            return false;
+        }
+        em.flush();
+        em.clear();
+        return true;
+    }
+}
@@ -0,0 +1,153 @@
+package me.joshua.querydsl_study.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import me.joshua.querydsl_study.dto.MemberDto;
+import me.joshua.querydsl_study.dto.QMemberDto;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import static me.joshua.querydsl_study.entity.QMember.member;
+
+/**
+ * 회원 전체 내보내기
+ *
+ * fetch() 는 결과 전체를 List 로 만들어서 메모리에 올린다. 여기서는 stream() 으로
+ * 하이버네이트 ScrollableResults(FORWARD_ONLY) 위에서 한 건씩 읽고 바로 써서 내보내므로
+ * 행 수와 관계없이 힙 사용량이 일정하다.
+ *
+ * 1. fetchSize 힌트로 JDBC 드라이버가 한 번에 가져오는 행 수를 제한한다.
+ * 2. DTO 로 바로 조회하므로 영속성 컨텍스트에 엔티티가 쌓이지 않지만,
+ *    chunkSize 마다 flush 하면서 영속성 컨텍스트도 비워준다.
+ */
+@Service
+public class MemberExportService {
+
+    private final JPAQueryFactory queryFactory;
+
+    private final EntityManager em;
+
+    private final ObjectMapper objectMapper;
+
+    private final int fetchSize;
+
+    private final int chunkSize;
+
+    public MemberExportService(final JPAQueryFactory queryFactory,
+                               final EntityManager em,
+                               final ObjectMapper objectMapper,
+                               @Value("${querydsl-study.export.fetch-size:1000}") final int fetchSize,
+                               @Value("${querydsl-study.export.chunk-size:1000}") final int chunkSize) {
+        this.queryFactory = queryFactory;
+        this.em = em;
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @return 내보낸 행 수
+     */
+    @Transactional(readOnly = true)
+    public long export(final ExportFormat format, final OutputStream out) throws IOException {
+        // 기존 트랜잭션에 참여한 경우 아직 반영되지 않은 변경이 clear 로 사라지지 않도록 먼저 반영한다.
+        em.flush();
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        RowWriter rowWriter = format == ExportFormat.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+
+        long count = 0;
+        try (Stream<MemberDto> rows = queryFactory
+                .select(new QMemberDto(member.username, member.age))
+                .from(member)
+                .orderBy(member.id.asc())
+                .setHint(QueryHints.FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.READ_ONLY, true)
+                .stream()) {
+
+            Iterator<MemberDto> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                rowWriter.write(iterator.next());
+                if (++count % chunkSize == 0) {
+                    rowWriter.flush();
+                    em.clear();
+                }
+            }
+        }
+        rowWriter.flush();
+        return count;
+    }
+
+    private interface RowWriter {
+        void write(MemberDto row) throws IOException;
+
+        void flush() throws IOException;
+    }
+
+    private class NdjsonRowWriter implements RowWriter {
+
+        private final SequenceWriter sequenceWriter;
+
+        NdjsonRowWriter(final Writer writer) throws IOException {
+            this.sequenceWriter = objectMapper.writerFor(MemberDto.class)
+                    .withRootValueSeparator("\n")
+                    .writeValues(writer);
+        }
+
+        @Override
+        public void write(final MemberDto row) throws IOException {
+            sequenceWriter.write(row);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            sequenceWriter.flush();
+        }
+    }
+
+    private static class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        CsvRowWriter(final Writer writer) throws IOException {
+            this.writer = writer;
+            writer.write("username,age\n");
+        }
+
+        @Override
+        public void write(final MemberDto row) throws IOException {
+            writer.write(escape(row.getUsername()));
+            writer.write(',');
+            writer.write(Integer.toString(row.getAge()));
+            writer.write('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        private static String escape(final String value) {
+            if (value == null) {
+                return "";
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+}
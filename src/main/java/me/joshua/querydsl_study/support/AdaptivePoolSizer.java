@@ -0,0 +1,111 @@
+package me.joshua.querydsl_study.support;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 커넥션 대기 시간을 보고 HikariCP 최대 풀 크기를 조절한다.
+ *
+ * 주기마다 hikaricp.connections.acquire 타이머의 증가분으로 그 구간의 평균 대기 시간을 구해서
+ * 목표 대기 시간을 넘으면 step 만큼 늘리고, 목표의 1/4 보다 짧고 사용 중인 커넥션이 절반도 안 되면 step 만큼 줄인다.
+ * 풀 크기는 [lowerBound, upperBound] 를 벗어나지 않는다. (DB 의 최대 커넥션 수를 넘지 않도록 upperBound 를 잡는다.)
+ */
+@Slf4j
+public class AdaptivePoolSizer {
+
+    private static final String ACQUIRE_METER = "hikaricp.connections.acquire";
+
+    private final List<HikariDataSource> pools;
+
+    private final MeterRegistry registry;
+
+    private final long targetWaitNanos;
+
+    private final int lowerBound;
+
+    private final int upperBound;
+
+    private final int step;
+
+    private final Map<String, Sample> previous = new ConcurrentHashMap<>();
+
+    public AdaptivePoolSizer(final List<HikariDataSource> pools,
+                             final MeterRegistry registry,
+                             final Duration targetWait,
+                             final int lowerBound,
+                             final int upperBound,
+                             final int step) {
+        this.pools = pools;
+        this.registry = registry;
+        this.targetWaitNanos = targetWait.toNanos();
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+        this.step = step;
+    }
+
+    @Scheduled (fixedDelayString = "${querydsl-study.datasource.adaptive.interval:PT10S}")
+    public void resize() {
+        pools.forEach(this::resize);
+    }
+
+    void resize(final HikariDataSource dataSource) {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        Timer acquire = registry.find(ACQUIRE_METER).tag("pool", dataSource.getPoolName()).timer();
+        if (pool == null || acquire == null) {
+            return;
+        }
+
+        Sample current = new Sample(acquire.count(), acquire.totalTime(TimeUnit.NANOSECONDS));
+        Sample last = previous.put(dataSource.getPoolName(), current);
+        if (last == null || current.count == last.count) {
+            return;
+        }
+        double meanWaitNanos = (current.totalNanos - last.totalNanos) / (current.count - last.count);
+
+        HikariConfigMXBean config = dataSource.getHikariConfigMXBean();
+        int size = config.getMaximumPoolSize();
+        int next = nextSize(size, meanWaitNanos, pool.getActiveConnections());
+        if (next == size) {
+            return;
+        }
+        if (next < config.getMinimumIdle()) {
+            config.setMinimumIdle(next);
+        }
+        config.setMaximumPoolSize(next);
+        log.info("[{}] 평균 커넥션 대기 {}ms, 최대 풀 크기 {} -> {}",
+                dataSource.getPoolName(), String.format("%.2f", meanWaitNanos / 1_000_000), size, next);
+    }
+
+    int nextSize(final int size, final double meanWaitNanos, final int active) {
+        if (meanWaitNanos > targetWaitNanos) {
+            return Math.min(size + step, upperBound);
+        }
+        if (meanWaitNanos < targetWaitNanos / 4.0 && active < size / 2) {
+            return Math.max(size - step, lowerBound);
+        }
+        return size;
+    }
+
+    private static class Sample {
+
+        private final long count;
+
+        private final double totalNanos;
+
+        private Sample(final long count, final double totalNanos) {
+            this.count = count;
+            this.totalNanos = totalNanos;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package me.joshua.querydsl_study.support;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import me.joshua.querydsl_study.entity.Member;
+import me.joshua.querydsl_study.entity.Team;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnitUtil;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static me.joshua.querydsl_study.entity.QMember.member;
+import static me.joshua.querydsl_study.entity.QTeam.team;
+
+/**
+ * 조회 결과의 연관관계를 쿼리 한 번으로 미리 로딩한다.
+ *
+ * 이미 조회한 결과 목록에 대해 fetch join 을 다시 걸 수는 없으므로,
+ * 아직 초기화되지 않은 프록시 / 컬렉션만 모아서 IN 절로 한 번에 조회해 영속성 컨텍스트에 올려둔다.
+ * 이후 프록시에 접근하면 영속성 컨텍스트에서 바로 찾으므로 SQL 이 나가지 않는다.
+ * (IN 절이 너무 길어지지 않도록 CHUNK_SIZE 개씩 나눈다.)
+ */
+@Component
+public class AssociationPreloader {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private final JPAQueryFactory queryFactory;
+
+    private final PersistenceUnitUtil persistenceUnitUtil;
+
+    public AssociationPreloader(final JPAQueryFactory queryFactory, final EntityManagerFactory emf) {
+        this.queryFactory = queryFactory;
+        this.persistenceUnitUtil = emf.getPersistenceUnitUtil();
+    }
+
+    /**
+     * 회원 목록의 Member.team 을 미리 로딩한다.
+     */
+    public void preloadTeams(final List<Member> members) {
+        Set<Object> teamIds = new LinkedHashSet<>();
+        for (Member m : members) {
+            Team memberTeam = m.getTeam();
+            if (memberTeam != null && !persistenceUnitUtil.isLoaded(memberTeam)) {
+                // 프록시에서 id 를 꺼내는 것은 초기화를 일으키지 않는다.
+                teamIds.add(persistenceUnitUtil.getIdentifier(memberTeam));
+            }
+        }
+
+        for (List<Long> chunk : chunks(teamIds)) {
+            queryFactory
+                    .selectFrom(team)
+                    .where(team.id.in(chunk))
+                    .fetch();
+        }
+    }
+
+    /**
+     * 팀 목록의 Team.members 컬렉션을 미리 로딩한다.
+     */
+    public void preloadMembers(final List<Team> teams) {
+        List<Team> uninitialized = new ArrayList<>();
+        for (Team t : teams) {
+            if (!persistenceUnitUtil.isLoaded(t, "members")) {
+                uninitialized.add(t);
+            }
+        }
+
+        for (int from = 0; from < uninitialized.size(); from += CHUNK_SIZE) {
+            List<Team> chunk = uninitialized.subList(from, Math.min(from + CHUNK_SIZE, uninitialized.size()));
+            queryFactory
+                    .selectFrom(team).distinct()
+                    .leftJoin(team.members, member).fetchJoin()
+                    .where(team.in(chunk))
+                    .fetch();
+        }
+    }
+
+    private static List<List<Long>> chunks(final Set<Object> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        List<Long> chunk = new ArrayList<>(CHUNK_SIZE);
+        for (Object id : ids) {
+            chunk.add((Long) id);
+            if (chunk.size() == CHUNK_SIZE) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>(CHUNK_SIZE);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,160 @@
+package me.joshua.querydsl_study.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 컨트롤러 -> QueryDSL 호출을 요청 스레드가 아닌 별도 실행기에서 돌린다.
+ *
+ * JDK 21 이상이면 가상 스레드를, 아니면 maxConcurrency 크기의 스레드 풀을 사용한다.
+ * 어느 쪽이든 동시에 DB 작업을 하는 수는 maxConcurrency (기본 : 커넥션 풀 크기) 로 제한한다.
+ * 실행 중 + 대기 중인 작업이 maxConcurrency + queueCapacity 를 넘으면 요청 스레드에서 기다리지 않고
+ * 바로 QueryRejectedException (503) 으로 실패시킨다. (요청 스레드를 붙잡지 않는 것이 이 실행기의 목적이다.)
+ * 대기는 작업 스레드에서 한다. 플랫폼 스레드 풀은 스레드 수가 maxConcurrency 이므로 작업 큐에서,
+ * 가상 스레드는 실행 자리 (running) 를 기다리며 멈춘다.
+ * 작업 안에서 다시 제출하면 대기 중인 하위 작업을 기다리다 실행 자리를 모두 묶을 수 있으므로 바로 거절한다.
+ * 제출한 스레드의 N+1 감지 범위와 복제 지연 클라이언트는 작업 스레드로 넘긴다. (NPlusOneDetector.propagate, DataSourceRouting.propagate)
+ */
+@Slf4j
+@Component
+public class BoundedQueryExecutor implements DisposableBean {
+
+    /** 현재 스레드가 이 실행기의 작업을 실행 중인지 */
+    private static final ThreadLocal<Boolean> IN_WORK = new ThreadLocal<>();
+
+    /** 실행 중 + 대기 중 (maxConcurrency + queueCapacity) */
+    private final Semaphore permits;
+
+    /** 실행 중 (maxConcurrency) */
+    private final Semaphore running;
+
+    private final ExecutorService executor;
+
+    private final boolean virtual;
+
+    private final NPlusOneDetector nPlusOneDetector;
+
+    public BoundedQueryExecutor(@Value("${querydsl-study.async.max-concurrency:${spring.datasource.hikari.maximum-pool-size:10}}") final int maxConcurrency,
+                                @Value("${querydsl-study.async.queue-capacity:100}") final int queueCapacity,
+                                @Value("${querydsl-study.async.mode:auto}") final Mode mode,
+                                final NPlusOneDetector nPlusOneDetector) {
+        this.nPlusOneDetector = nPlusOneDetector;
+        this.permits = new Semaphore(maxConcurrency + queueCapacity);
+        this.running = new Semaphore(maxConcurrency);
+
+        ExecutorService virtualExecutor = mode == Mode.PLATFORM ? null : newVirtualThreadExecutor();
+        if (mode == Mode.VIRTUAL && virtualExecutor == null) {
+            throw new IllegalStateException("가상 스레드는 JDK 21 이상에서만 사용할 수 있습니다.");
+        }
+        this.virtual = virtualExecutor != null;
+        this.executor = virtual ? virtualExecutor : newPlatformThreadExecutor(maxConcurrency);
+        log.info("QueryDSL 실행기 : {} 스레드, 최대 동시 실행 {}, 대기 {}", virtual ? "가상" : "플랫폼", maxConcurrency, queueCapacity);
+    }
+
+    public <T> CompletableFuture<T> submit(final Supplier<T> work) {
+        if (IN_WORK.get() != null || !permits.tryAcquire()) {
+            return CompletableFuture.failedFuture(new QueryRejectedException());
+        }
+        try {
+            return CompletableFuture.supplyAsync(DataSourceRouting.propagate(nPlusOneDetector.propagate(run(work))), executor)
+                    .whenComplete((result, e) -> permits.release());
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            return CompletableFuture.failedFuture(new QueryRejectedException());
+        }
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * 작업 스레드에서 실행 자리를 기다린 뒤 실행한다.
+     */
+    private <T> Supplier<T> run(final Supplier<T> work) {
+        return () -> {
+            try {
+                running.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new QueryRejectedException();
+            }
+            IN_WORK.set(Boolean.TRUE);
+            try {
+                return work.get();
+            } finally {
+                IN_WORK.remove();
+                running.release();
+            }
+        };
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    /**
+     * 소스 호환성은 JDK 11 이므로 가상 스레드 실행기는 리플렉션으로 만든다.
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 스레드 수가 동시 실행 수이고, 나머지는 큐에서 기다린다. (큐 길이는 permits 가 queueCapacity 로 제한한다.)
+     */
+    private static ExecutorService newPlatformThreadExecutor(final int threads) {
+        AtomicInteger sequence = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "query-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    public enum Mode {
+        /** 가능하면 가상 스레드, 아니면 스레드 풀 */
+        AUTO,
+        VIRTUAL,
+        PLATFORM
+    }
+
+    @ResponseStatus (HttpStatus.SERVICE_UNAVAILABLE)
+    public static class QueryRejectedException extends RuntimeException {
+
+        public QueryRejectedException() {
+            super("동시에 실행 중인 조회가 너무 많습니다.");
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package me.joshua.querydsl_study.support;
+
+import com.querydsl.jpa.JPQLQuery;
+import me.joshua.querydsl_study.support.ColumnarResult.Column;
+import me.joshua.querydsl_study.support.ColumnarResult.ColumnType;
+import me.joshua.querydsl_study.support.ColumnarResult.DictionaryColumn;
+import me.joshua.querydsl_study.support.ColumnarResult.DoubleColumn;
+import me.joshua.querydsl_study.support.ColumnarResult.IntColumn;
+import me.joshua.querydsl_study.support.ColumnarResult.LongColumn;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 집계 쿼리 결과를 ResultSet 에서 바로 기본형 배열로 읽는다.
+ *
+ * QueryDSL 로 작성한 쿼리를 하이버네이트 SQL 로 바꿔서(HqlSqlTranslator) 같은 커넥션으로 직접 실행하고,
+ * getInt / getLong / getDouble 로 읽어서 박싱 없이 ColumnarResult 에 채운다.
+ * select 절의 순서대로 컬럼 타입을 지정한다.
+ *
+ * 사용 예
+ * columnarQueryExecutor.fetch(
+ *         queryFactory.select(team.name, member.count(), member.age.avg()).from(member).join(member.team, team).groupBy(team.name),
+ *         DICTIONARY, LONG, DOUBLE);
+ */
+@Component
+public class ColumnarQueryExecutor {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final EntityManager em;
+
+    private final HqlSqlTranslator translator;
+
+    public ColumnarQueryExecutor(final EntityManager em, final HqlSqlTranslator translator) {
+        this.em = em;
+        this.translator = translator;
+    }
+
+    @Transactional(readOnly = true)
+    public ColumnarResult fetch(final JPQLQuery<?> query, final ColumnType... types) {
+        HqlSqlTranslator.Translation translation = translator.translate(query);
+
+        // JDBC 로 직접 실행하면 자동 flush 가 일어나지 않으므로 쓰기 지연된 변경을 먼저 반영한다.
+        em.flush();
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        return session.doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(translation.getSql())) {
+                translation.bind(statement, session);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    return read(resultSet, types);
+                }
+            }
+        });
+    }
+
+    private static ColumnarResult read(final ResultSet resultSet, final ColumnType[] types) throws SQLException {
+        int columnCount = resultSet.getMetaData().getColumnCount();
+        if (columnCount != types.length) {
+            throw new IllegalArgumentException("컬럼 타입 개수(" + types.length + ")가 select 절(" + columnCount + ")과 다릅니다.");
+        }
+
+        Column[] columns = new Column[types.length];
+        for (int i = 0; i < types.length; i++) {
+            columns[i] = newColumn(types[i]);
+        }
+
+        int row = 0;
+        while (resultSet.next()) {
+            for (int i = 0; i < types.length; i++) {
+                int jdbcIndex = i + 1;
+                switch (types[i]) {
+                    case INT:
+                        ((IntColumn) columns[i]).set(row, resultSet.getInt(jdbcIndex));
+                        break;
+                    case LONG:
+                        ((LongColumn) columns[i]).set(row, resultSet.getLong(jdbcIndex));
+                        break;
+                    case DOUBLE:
+                        ((DoubleColumn) columns[i]).set(row, resultSet.getDouble(jdbcIndex));
+                        break;
+                    case DICTIONARY:
+                        ((DictionaryColumn) columns[i]).set(row, resultSet.getString(jdbcIndex));
+                        break;
+                    default:
+                        throw new IllegalStateException("unknown column type " + types[i]);
+                }
+                if (resultSet.wasNull()) {
+                    columns[i].markNull(row);
+                }
+            }
+            row++;
+        }
+
+        for (Column column : columns) {
+            column.trim(row);
+        }
+        return new ColumnarResult(row, columns);
+    }
+
+    private static Column newColumn(final ColumnType type) {
+        switch (type) {
+            case INT:
+                return new IntColumn(INITIAL_CAPACITY);
+            case LONG:
+                return new LongColumn(INITIAL_CAPACITY);
+            case DOUBLE:
+                return new DoubleColumn(INITIAL_CAPACITY);
+            case DICTIONARY:
+                return new DictionaryColumn(INITIAL_CAPACITY);
+            default:
+                throw new IllegalStateException("unknown column type " + type);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package me.joshua.querydsl_study.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 컬럼 단위로 저장한 조회 결과
+ *
+ * List<Tuple> 은 행마다 Tuple 과 Object[] 를 만들고 숫자를 Integer / Long / Double 로 박싱한다.
+ * 여기서는 컬럼마다 int[] / long[] / double[] 배열 하나에 값을 채우므로 행 단위 객체 생성이 없다.
+ * 문자열 컬럼은 사전 인코딩(dictionary encoding)해서 int 코드 배열 + 중복 없는 값 목록으로 저장한다.
+ */
+public final class ColumnarResult {
+
+    private final int size;
+
+    private final Column[] columns;
+
+    ColumnarResult(final int size, final Column[] columns) {
+        this.size = size;
+        this.columns = columns;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int columnCount() {
+        return columns.length;
+    }
+
+    public IntColumn intColumn(final int index) {
+        return column(index, IntColumn.class);
+    }
+
+    public LongColumn longColumn(final int index) {
+        return column(index, LongColumn.class);
+    }
+
+    public DoubleColumn doubleColumn(final int index) {
+        return column(index, DoubleColumn.class);
+    }
+
+    public DictionaryColumn dictionaryColumn(final int index) {
+        return column(index, DictionaryColumn.class);
+    }
+
+    private <C extends Column> C column(final int index, final Class<C> type) {
+        Column column = columns[index];
+        if (!type.isInstance(column)) {
+            throw new IllegalArgumentException(index + " 번 컬럼은 " + column.getClass().getSimpleName() + " 입니다.");
+        }
+        return type.cast(column);
+    }
+
+    public enum ColumnType {
+        INT, LONG, DOUBLE, DICTIONARY
+    }
+
+    /**
+     * 모든 컬럼의 공통 부분, null 여부만 따로 기록한다.
+     */
+    public abstract static class Column {
+
+        private final BitSet nulls = new BitSet();
+
+        public boolean isNull(final int row) {
+            return nulls.get(row);
+        }
+
+        void markNull(final int row) {
+            nulls.set(row);
+        }
+
+        abstract void trim(int size);
+    }
+
+    public static final class IntColumn extends Column {
+
+        private int[] values;
+
+        IntColumn(final int capacity) {
+            this.values = new int[capacity];
+        }
+
+        public int get(final int row) {
+            return values[row];
+        }
+
+        /**
+         * 내부 배열을 그대로 돌려준다. 수정하지 말 것.
+         */
+        public int[] values() {
+            return values;
+        }
+
+        void set(final int row, final int value) {
+            if (row == values.length) {
+                values = Arrays.copyOf(values, Math.max(16, row * 2));
+            }
+            values[row] = value;
+        }
+
+        @Override
+        void trim(final int size) {
+            values = Arrays.copyOf(values, size);
+        }
+    }
+
+    public static final class LongColumn extends Column {
+
+        private long[] values;
+
+        LongColumn(final int capacity) {
+            this.values = new long[capacity];
+        }
+
+        public long get(final int row) {
+            return values[row];
+        }
+
+        public long[] values() {
+            return values;
+        }
+
+        void set(final int row, final long value) {
+            if (row == values.length) {
+                values = Arrays.copyOf(values, Math.max(16, row * 2));
+            }
+            values[row] = value;
+        }
+
+        @Override
+        void trim(final int size) {
+            values = Arrays.copyOf(values, size);
+        }
+    }
+
+    public static final class DoubleColumn extends Column {
+
+        private double[] values;
+
+        DoubleColumn(final int capacity) {
+            this.values = new double[capacity];
+        }
+
+        public double get(final int row) {
+            return values[row];
+        }
+
+        public double[] values() {
+            return values;
+        }
+
+        void set(final int row, final double value) {
+            if (row == values.length) {
+                values = Arrays.copyOf(values, Math.max(16, row * 2));
+            }
+            values[row] = value;
+        }
+
+        @Override
+        void trim(final int size) {
+            values = Arrays.copyOf(values, size);
+        }
+    }
+
+    public static final class DictionaryColumn extends Column {
+
+        private int[] codes;
+
+        private final List<String> dictionary = new ArrayList<>();
+
+        private final Map<String, Integer> index = new HashMap<>();
+
+        DictionaryColumn(final int capacity) {
+            this.codes = new int[capacity];
+        }
+
+        public String get(final int row) {
+            return isNull(row) ? null : dictionary.get(codes[row]);
+        }
+
+        /**
+         * dictionary() 의 인덱스, null 이면 -1
+         */
+        public int code(final int row) {
+            return codes[row];
+        }
+
+        public int[] codes() {
+            return codes;
+        }
+
+        public List<String> dictionary() {
+            return Collections.unmodifiableList(dictionary);
+        }
+
+        void set(final int row, final String value) {
+            if (row == codes.length) {
+                codes = Arrays.copyOf(codes, Math.max(16, row * 2));
+            }
+            if (value == null) {
+                codes[row] = -1;
+                return;
+            }
+            Integer code = index.get(value);
+            if (code == null) {
+                code = dictionary.size();
+                dictionary.add(value);
+                index.put(value, code);
+            }
+            codes[row] = code;
+        }
+
+        @Override
+        void trim(final int size) {
+            codes = Arrays.copyOf(codes, size);
+        }
+    }
+}
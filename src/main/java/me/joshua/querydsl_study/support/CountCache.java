@@ -0,0 +1,157 @@
+package me.joshua.querydsl_study.support;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * 조건(count 쿼리) 별 전체 건수 캐시
+ *
+ * 목록 화면의 total 은 몇 초 정도 늦어도 문제가 없는 경우가 많으므로
+ * 같은 조건의 count 쿼리는 TTL 동안 다시 날리지 않는다.
+ * TTL 을 0 으로 설정하면 캐시를 사용하지 않는다.
+ *
+ * 쓰기 트랜잭션 안에서 센 total 은 커밋되지 않은 변경을 포함할 수 있으므로 (롤백되면 틀린 값이 남는다.)
+ * 그 트랜잭션에만 보관하고 트랜잭션이 끝나면 버린다. 공유 캐시에는 읽기 전용 트랜잭션이나 트랜잭션 밖에서 센 total 만 넣는다.
+ * 반대로 공유 캐시의 total 은 그 트랜잭션의 변경을 모르므로 쓰기 트랜잭션 안에서는 읽지 않는다.
+ */
+@Component
+public class CountCache {
+
+    private final Duration ttl;
+
+    private final int maxEntries;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public CountCache(@Value("${querydsl-study.paging.count-cache.ttl:10s}") final Duration ttl,
+                      @Value("${querydsl-study.paging.count-cache.max-entries:10000}") final int maxEntries) {
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+    }
+
+    public boolean isEnabled() {
+        return !ttl.isZero() && !ttl.isNegative();
+    }
+
+    /**
+     * 캐시된 값이 없거나 만료되었으면 null
+     */
+    public Long get(final String key) {
+        if (!isEnabled()) {
+            return null;
+        }
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(System.nanoTime())) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.total;
+    }
+
+    public void put(final String key, final long total) {
+        if (!isEnabled()) {
+            return;
+        }
+        if (entries.size() >= maxEntries) {
+            evictExpired();
+            if (entries.size() >= maxEntries) {
+                entries.clear();
+            }
+        }
+        entries.put(key, new Entry(total, System.nanoTime() + ttl.toNanos()));
+    }
+
+    public long getOrCompute(final String key, final LongSupplier counter) {
+        if (!isEnabled()) {
+            return counter.getAsLong();
+        }
+        if (!isWriteTransaction()) {
+            Long cached = get(key);
+            if (cached != null) {
+                return cached;
+            }
+            long total = counter.getAsLong();
+            put(key, total);
+            return total;
+        }
+
+        Map<String, Long> local = currentOrBind();
+        Long cached = local.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        long total = counter.getAsLong();
+        local.put(key, total);
+        return total;
+    }
+
+    private static boolean isWriteTransaction() {
+        return TransactionSynchronizationManager.isSynchronizationActive()
+                && TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Long> currentOrBind() {
+        Map<String, Long> current = (Map<String, Long>) TransactionSynchronizationManager.getResource(this);
+        if (current != null) {
+            return current;
+        }
+
+        Map<String, Long> bound = new HashMap<>();
+        TransactionSynchronizationManager.bindResource(this, bound);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void suspend() {
+                TransactionSynchronizationManager.unbindResource(CountCache.this);
+            }
+
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(CountCache.this, bound);
+            }
+
+            @Override
+            public void afterCompletion(final int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(CountCache.this);
+            }
+        });
+        return bound;
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    private void evictExpired() {
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+    }
+
+    private static final class Entry {
+
+        private final long total;
+
+        private final long expiresAt;
+
+        private Entry(final long total, final long expiresAt) {
+            this.total = total;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(final long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+}
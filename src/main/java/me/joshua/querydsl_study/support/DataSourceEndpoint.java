@@ -0,0 +1,96 @@
+package me.joshua.querydsl_study.support;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /actuator/datasource
+ *
+ * 커넥션 풀 상태 (사용 중 / 유휴 / 대기 스레드, 커넥션 대기 시간), 쿼리 플랜 캐시 hit 비율,
+ * 문장 종류별 실행 시간을 한 번에 보여준다. 같은 값은 /actuator/metrics 에서도 볼 수 있다.
+ */
+@Component
+@Endpoint (id = "datasource")
+public class DataSourceEndpoint {
+
+    private final List<HikariDataSource> pools;
+
+    private final MeterRegistry registry;
+
+    private final HibernateQueryPlanMetrics queryPlanMetrics;
+
+    public DataSourceEndpoint(final List<DataSource> dataSources,
+                              final MeterRegistry registry,
+                              final HibernateQueryPlanMetrics queryPlanMetrics) {
+        this.pools = HikariPools.find(dataSources);
+        this.registry = registry;
+        this.queryPlanMetrics = queryPlanMetrics;
+    }
+
+    @ReadOperation
+    public Map<String, Object> datasource() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("pools", pools());
+        result.put("queryPlanCache", queryPlanCache());
+        result.put("statements", statements());
+        return result;
+    }
+
+    private Map<String, Object> pools() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (HikariDataSource dataSource : pools) {
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("maximumPoolSize", dataSource.getHikariConfigMXBean().getMaximumPoolSize());
+            stats.put("minimumIdle", dataSource.getHikariConfigMXBean().getMinimumIdle());
+            if (pool != null) {
+                stats.put("active", pool.getActiveConnections());
+                stats.put("idle", pool.getIdleConnections());
+                stats.put("total", pool.getTotalConnections());
+                stats.put("pending", pool.getThreadsAwaitingConnection());
+            }
+            Timer acquire = registry.find("hikaricp.connections.acquire").tag("pool", dataSource.getPoolName()).timer();
+            if (acquire != null) {
+                stats.put("wait", timing(acquire));
+            }
+            result.put(dataSource.getPoolName(), stats);
+        }
+        return result;
+    }
+
+    private Map<String, Object> queryPlanCache() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("hit", queryPlanMetrics.getHitCount());
+        result.put("miss", queryPlanMetrics.getMissCount());
+        result.put("hitRatio", queryPlanMetrics.getHitRatio());
+        return result;
+    }
+
+    private Map<String, Object> statements() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (Timer timer : registry.find(JdbcMetricsListener.METER_NAME).timers()) {
+            String key = timer.getId().getTag("type") + ":" + timer.getId().getTag("outcome");
+            result.put(key, timing(timer));
+        }
+        return result;
+    }
+
+    private static Map<String, Object> timing(final Timer timer) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("count", timer.count());
+        result.put("meanMs", timer.mean(TimeUnit.MILLISECONDS));
+        result.put("maxMs", timer.max(TimeUnit.MILLISECONDS));
+        return result;
+    }
+}
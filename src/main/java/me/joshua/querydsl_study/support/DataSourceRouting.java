@@ -0,0 +1,93 @@
+package me.joshua.querydsl_study.support;
+
+import java.util.function.Supplier;
+
+/**
+ * 읽기 전용 트랜잭션이라도 반드시 primary 에서 읽어야 하는 경우 (복제 지연을 허용할 수 없는 경우)
+ *
+ * Member member = DataSourceRouting.usePrimary(() -> memberQueryRepository.findByUsername("member1"));
+ *
+ * 커넥션은 트랜잭션의 첫 쿼리에서 정해지므로 트랜잭션 전체를 감싸야 한다.
+ *
+ * 복제 지연은 클라이언트 단위로 따진다. 한 클라이언트의 쓰기는 그 클라이언트의 읽기만 primary 로 보낸다.
+ * 클라이언트는 asClient() 로 지정하고 (웹 요청은 DataSourceRoutingFilter 가 세션 / 요청 단위로 지정한다.)
+ * 지정하지 않으면 스레드를 클라이언트로 본다.
+ */
+public final class DataSourceRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY_FORCED = ThreadLocal.withInitial(() -> false);
+
+    private static final ThreadLocal<Object> CLIENT = new ThreadLocal<>();
+
+    private static final ThreadLocal<Object> THREAD_CLIENT = ThreadLocal.withInitial(Object::new);
+
+    private DataSourceRouting() {
+    }
+
+    public static <T> T usePrimary(final Supplier<T> action) {
+        boolean previous = PRIMARY_FORCED.get();
+        PRIMARY_FORCED.set(true);
+        try {
+            return action.get();
+        } finally {
+            PRIMARY_FORCED.set(previous);
+        }
+    }
+
+    public static boolean isPrimaryForced() {
+        return PRIMARY_FORCED.get();
+    }
+
+    /**
+     * client 는 equals / hashCode 로 비교한다. (세션 id 등)
+     */
+    public static <T> T asClient(final Object client, final Supplier<T> action) {
+        Object previous = bindClient(client);
+        try {
+            return action.get();
+        } finally {
+            restoreClient(previous);
+        }
+    }
+
+    /**
+     * 람다로 감쌀 수 없는 곳 (필터 등) 에서 사용한다. 반환값은 restoreClient() 에 넘긴다.
+     */
+    public static Object bindClient(final Object client) {
+        Object previous = CLIENT.get();
+        CLIENT.set(client);
+        return previous;
+    }
+
+    public static void restoreClient(final Object previous) {
+        if (previous == null) {
+            CLIENT.remove();
+        } else {
+            CLIENT.set(previous);
+        }
+    }
+
+    public static Object currentClient() {
+        Object client = CLIENT.get();
+        return client != null ? client : THREAD_CLIENT.get();
+    }
+
+    /**
+     * 지금 스레드의 클라이언트를 다른 스레드에서 실행할 작업으로 넘긴다.
+     */
+    public static <T> Supplier<T> propagate(final Supplier<T> work) {
+        Object client = CLIENT.get();
+        if (client == null) {
+            return work;
+        }
+        return () -> asClient(client, work);
+    }
+
+    public static Runnable propagate(final Runnable work) {
+        Supplier<Void> supplier = propagate(() -> {
+            work.run();
+            return null;
+        });
+        return supplier::get;
+    }
+}
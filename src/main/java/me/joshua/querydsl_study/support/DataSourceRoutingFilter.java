@@ -0,0 +1,34 @@
+package me.joshua.querydsl_study.support;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.IOException;
+
+/**
+ * 복제 지연을 따지는 클라이언트를 지정한다. (DataSourceRouting.asClient)
+ *
+ * 세션이 있으면 세션, 없으면 요청 하나를 클라이언트로 본다.
+ * 비동기 요청의 작업 스레드로는 DataSourceRouting.propagate() 로 넘긴다. (BoundedQueryExecutor, MVC 비동기 실행기)
+ */
+@Component
+public class DataSourceRoutingFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request,
+                                    final HttpServletResponse response,
+                                    final FilterChain filterChain) throws ServletException, IOException {
+        HttpSession session = request.getSession(false);
+        Object previous = DataSourceRouting.bindClient(session != null ? "session:" + session.getId() : new Object());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            DataSourceRouting.restoreClient(previous);
+        }
+    }
+}
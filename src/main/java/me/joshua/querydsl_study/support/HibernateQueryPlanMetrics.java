@@ -0,0 +1,55 @@
+package me.joshua.querydsl_study.support;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * 하이버네이트 쿼리 플랜 캐시 (JPQL 문자열 -> 파싱된 플랜) 의 hit / miss
+ *
+ * H2 드라이버에는 클라이언트 쪽 PreparedStatement 캐시가 없으므로 (서버 쪽 QUERY_CACHE_SIZE 만 있다)
+ * 문장 재사용 여부는 이 캐시로 본다. hibernate.generate_statistics 가 켜져 있어야 한다.
+ */
+@Component
+public class HibernateQueryPlanMetrics implements MeterBinder {
+
+    public static final String METER_NAME = "hibernate.query.plan.cache";
+
+    private final Statistics statistics;
+
+    public HibernateQueryPlanMetrics(final EntityManagerFactory emf) {
+        this.statistics = emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        FunctionCounter.builder(METER_NAME, statistics, Statistics::getQueryPlanCacheHitCount)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder(METER_NAME, statistics, Statistics::getQueryPlanCacheMissCount)
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder(METER_NAME + ".hit.ratio", this, HibernateQueryPlanMetrics::getHitRatio)
+                .register(registry);
+    }
+
+    public long getHitCount() {
+        return statistics.getQueryPlanCacheHitCount();
+    }
+
+    public long getMissCount() {
+        return statistics.getQueryPlanCacheMissCount();
+    }
+
+    public double getHitRatio() {
+        long hit = getHitCount();
+        long total = hit + getMissCount();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+}
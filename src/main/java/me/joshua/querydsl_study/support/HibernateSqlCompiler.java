@@ -0,0 +1,110 @@
+package me.joshua.querydsl_study.support;
+
+import org.hibernate.Version;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.hql.internal.ast.ASTQueryTranslatorFactory;
+import org.hibernate.hql.internal.ast.QueryTranslatorImpl;
+import org.hibernate.param.ParameterSpecification;
+import org.hibernate.param.PositionalParameterSpecification;
+import org.hibernate.type.Type;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * HQL -> SQL 컴파일에 쓰는 하이버네이트 내부 API 를 이 클래스에만 둔다.
+ *
+ * 하이버네이트는 HQL 을 SQL 로만 바꿔주는 공개 API 가 없으므로 QueryTranslatorImpl (hql.internal) 과
+ * 파라미터 정보 (org.hibernate.param) 를 직접 사용한다. 내부 API 는 패치 버전에서도 바뀔 수 있으므로
+ * 하이버네이트를 올리면 HibernateSqlCompilerTest 가 먼저 실패한다. (SUPPORTED_VERSION)
+ * 확인한 뒤 SUPPORTED_VERSION 을 고친다.
+ */
+final class HibernateSqlCompiler {
+
+    /**
+     * 동작을 확인한 하이버네이트 버전 (major.minor.)
+     */
+    static final String SUPPORTED_VERSION = "5.6.";
+
+    private final SessionFactoryImplementor sessionFactory;
+
+    HibernateSqlCompiler(final SessionFactoryImplementor sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
+    static String hibernateVersion() {
+        return Version.getVersionString();
+    }
+
+    /**
+     * @param hql ?1, ?2 ... 위치 파라미터만 사용하는 HQL
+     */
+    CompiledSql compile(final String hql) {
+        QueryTranslatorImpl translator = (QueryTranslatorImpl) new ASTQueryTranslatorFactory()
+                .createQueryTranslator(hql, hql, Collections.emptyMap(), sessionFactory, null);
+        translator.compile(Collections.emptyMap(), false);
+
+        List<ParameterSpecification> specifications = translator.getCollectedParameterSpecifications();
+        int[] labels = new int[specifications.size()];
+        Type[] types = new Type[specifications.size()];
+        for (int i = 0; i < specifications.size(); i++) {
+            ParameterSpecification specification = specifications.get(i);
+            if (!(specification instanceof PositionalParameterSpecification)) {
+                throw new IllegalArgumentException("지원하지 않는 파라미터입니다. " + specification.renderDisplayInfo());
+            }
+            labels[i] = ((PositionalParameterSpecification) specification).getLabel();
+            types[i] = specification.getExpectedType();
+        }
+        return new CompiledSql(translator.getSQLString(), labels, types);
+    }
+
+    /**
+     * 하이버네이트가 추론한 타입으로 바인딩한다. (enum, 날짜 등도 엔티티 매핑과 같은 방식으로 들어간다.)
+     *
+     * @param parameters SQL 의 ? 순서대로 바인딩할 값
+     */
+    void bind(final CompiledSql compiled,
+              final List<Object> parameters,
+              final PreparedStatement statement,
+              final SharedSessionContractImplementor session) throws SQLException {
+        int position = 1;
+        for (int i = 0; i < compiled.labels.length; i++) {
+            Object value = parameters.get(i);
+            Type type = compiled.types[i];
+            if (type == null) {
+                statement.setObject(position++, value);
+            } else {
+                type.nullSafeSet(statement, value, position, session);
+                position += type.getColumnSpan(sessionFactory);
+            }
+        }
+    }
+
+    static final class CompiledSql {
+
+        private final String sql;
+
+        /** SQL 에 나오는 순서대로, 바인딩할 HQL 파라미터 번호 (1부터) */
+        private final int[] labels;
+
+        /** 하이버네이트가 추론한 파라미터 타입, 모르면 null */
+        private final Type[] types;
+
+        private CompiledSql(final String sql, final int[] labels, final Type[] types) {
+            this.sql = sql;
+            this.labels = labels;
+            this.types = types;
+        }
+
+        String getSql() {
+            return sql;
+        }
+
+        int[] getLabels() {
+            return labels;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package me.joshua.querydsl_study.support;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * p6spy 등으로 감싸진 DataSource 빈에서 HikariCP 풀을 꺼낸다.
+ * 라우팅 DataSource 처럼 Hikari 가 아닌 DataSource 는 건너뛴다.
+ */
+public final class HikariPools {
+
+    private HikariPools() {
+    }
+
+    public static List<HikariDataSource> find(final Collection<DataSource> dataSources) {
+        List<HikariDataSource> pools = new ArrayList<>();
+        for (DataSource dataSource : dataSources) {
+            HikariDataSource pool = unwrap(dataSource);
+            if (pool != null && !pools.contains(pool)) {
+                pools.add(pool);
+            }
+        }
+        return pools;
+    }
+
+    private static HikariDataSource unwrap(final DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource) {
+            return (HikariDataSource) dataSource;
+        }
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package me.joshua.querydsl_study.support;
+
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.dsl.ParamNotSetException;
+import com.querydsl.jpa.JPAProvider;
+import com.querydsl.jpa.JPQLQuery;
+import com.querydsl.jpa.JPQLSerializer;
+import lombok.Getter;
+import me.joshua.querydsl_study.support.HibernateSqlCompiler.CompiledSql;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * QueryDSL 쿼리 -> 하이버네이트가 실제로 실행할 SQL 과 바인딩 값
+ *
+ * JDBC 로 직접 실행하거나(ColumnarQueryExecutor) 실행 계획을 확인할 때 사용한다.
+ * 상수는 SQL 에 넣지 않고 JDBC 파라미터로 바인딩한다. 바인딩 순서와 타입은 하이버네이트가 컴파일한
+ * 파라미터 정보를 그대로 따른다. 하이버네이트 내부 API 는 HibernateSqlCompiler 에서만 사용한다.
+ * Param 은 쿼리에 바인딩된 값 (set(param, value)) 으로 바꾸고, 바인딩되지 않았으면 ParamNotSetException 으로 실패한다.
+ *
+ * HQL -> SQL 컴파일은 비싸므로 HQL 문자열로 캐시한다. (LRU, cacheSize 개)
+ * 값이 SQL 에 들어가지 않으므로 같은 모양의 쿼리는 값이 달라도 같은 SQL 을 쓴다.
+ * 컬렉션 상수는 원소마다 파라미터로 펼치고, 2의 거듭제곱 개수까지 마지막 값을 반복해 채운다.
+ * (hibernate.query.in_clause_parameter_padding 과 같은 방식으로 IN 목록 길이마다 SQL 이 늘어나지 않게 한다.)
+ */
+@Component
+public class HqlSqlTranslator {
+
+    private static final Pattern POSITIONAL_PARAMETER = Pattern.compile("\\?(\\d+)");
+
+    private final EntityManager em;
+
+    private final HibernateSqlCompiler compiler;
+
+    private final Map<String, CompiledSql> cache;
+
+    public HqlSqlTranslator(final EntityManager em,
+                            final EntityManagerFactory emf,
+                            @Value("${querydsl-study.hql-sql.cache-size:256}") final int cacheSize) {
+        this.em = em;
+        this.compiler = new HibernateSqlCompiler(emf.unwrap(SessionFactoryImplementor.class));
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<String, CompiledSql>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, CompiledSql> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    public Translation translate(final JPQLQuery<?> query) {
+        QueryMetadata metadata = query.getMetadata();
+        if (metadata.getModifiers().isRestricting()) {
+            throw new IllegalArgumentException("limit / offset 은 SQL 로 변환할 수 없습니다. JDBC 에서 지정하세요.");
+        }
+
+        JPQLSerializer serializer = new JPQLSerializer(JPAProvider.getTemplates(em), em);
+        serializer.serialize(metadata, false, null);
+
+        List<Object> values = new ArrayList<>();
+        String hql = expandParameters(serializer.toString(), bindParams(serializer.getConstants(), metadata), values);
+        return new Translation(compiled(hql), values);
+    }
+
+    /**
+     * 컴파일은 캐시 잠금 밖에서 한다. (같은 HQL 을 동시에 컴파일하면 하나만 남는다.)
+     */
+    private CompiledSql compiled(final String hql) {
+        CompiledSql cached = cache.get(hql);
+        if (cached != null) {
+            return cached;
+        }
+        CompiledSql compiled = compiler.compile(hql);
+        CompiledSql previous = cache.putIfAbsent(hql, compiled);
+        return previous != null ? previous : compiled;
+    }
+
+    /**
+     * Param 자리에 쿼리에 바인딩된 값을 넣는다. (JPAUtil.setConstants 와 같은 규칙)
+     */
+    private static List<Object> bindParams(final List<Object> constants, final QueryMetadata metadata) {
+        List<Object> bound = new ArrayList<>(constants.size());
+        for (Object constant : constants) {
+            if (constant instanceof ParamExpression) {
+                Object value = metadata.getParams().get(constant);
+                if (value == null) {
+                    throw new ParamNotSetException((ParamExpression<?>) constant);
+                }
+                constant = value;
+            }
+            bound.add(constant);
+        }
+        return bound;
+    }
+
+    /**
+     * 상수를 나오는 순서대로 ?1, ?2 ... 로 다시 번호 매기고 values 에 담는다.
+     */
+    private static String expandParameters(final String jpql, final List<Object> constants, final List<Object> values) {
+        Matcher matcher = POSITIONAL_PARAMETER.matcher(jpql);
+        StringBuffer hql = new StringBuffer();
+        while (matcher.find()) {
+            Object constant = constants.get(Integer.parseInt(matcher.group(1)) - 1);
+            String replacement;
+            if (constant instanceof Collection) {
+                boolean enclosed = jpql.substring(0, matcher.start()).trim().endsWith("(")
+                        && jpql.substring(matcher.end()).trim().startsWith(")");
+                replacement = expandCollection((Collection<?>) constant, values, enclosed);
+            } else {
+                values.add(constant);
+                replacement = "?" + values.size();
+            }
+            matcher.appendReplacement(hql, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(hql);
+        return hql.toString();
+    }
+
+    private static String expandCollection(final Collection<?> constant, final List<Object> values, final boolean enclosed) {
+        if (constant.isEmpty()) {
+            throw new IllegalArgumentException("빈 컬렉션은 파라미터로 바꿀 수 없습니다.");
+        }
+
+        int padded = Math.max(Integer.highestOneBit(constant.size() - 1) << 1, constant.size());
+        List<String> placeholders = new ArrayList<>(padded);
+        Object last = null;
+        for (Object element : constant) {
+            values.add(element);
+            placeholders.add("?" + values.size());
+            last = element;
+        }
+        while (placeholders.size() < padded) {
+            values.add(last);
+            placeholders.add("?" + values.size());
+        }
+
+        String expanded = String.join(", ", placeholders);
+        return enclosed ? expanded : "(" + expanded + ")";
+    }
+
+    /**
+     * SQL 과 그 SQL 에 바인딩할 값
+     */
+    public final class Translation {
+
+        private final CompiledSql compiled;
+
+        /** SQL 의 ? 순서대로 바인딩할 값 */
+        @Getter
+        private final List<Object> parameters;
+
+        private Translation(final CompiledSql compiled, final List<Object> values) {
+            this.compiled = compiled;
+            int[] labels = compiled.getLabels();
+            this.parameters = new ArrayList<>(labels.length);
+            for (int label : labels) {
+                parameters.add(values.get(label - 1));
+            }
+        }
+
+        public String getSql() {
+            return compiled.getSql();
+        }
+
+        /**
+         * 하이버네이트가 추론한 타입으로 바인딩한다. (enum, 날짜 등도 엔티티 매핑과 같은 방식으로 들어간다.)
+         */
+        public void bind(final PreparedStatement statement, final SharedSessionContractImplementor session) throws SQLException {
+            compiler.bind(compiled, parameters, statement, session);
+        }
+    }
+}
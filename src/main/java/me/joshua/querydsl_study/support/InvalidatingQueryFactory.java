@@ -0,0 +1,52 @@
+package me.joshua.querydsl_study.support;
+
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.jpa.impl.JPADeleteClause;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+
+import javax.persistence.EntityManager;
+
+/**
+ * update / delete 를 실행하면 QueryMemo 에서 대상 엔티티가 등장하는 결과를 지우는 JPAQueryFactory
+ *
+ * JPQL 벌크 연산은 영속성 컨텍스트를 거치지 않아 QueryMemoEventListener 가 알 수 없다.
+ * 벌크 절은 모두 이 팩토리에서 만들어지므로 execute() 직후 무효화하면 어디서 실행해도 빠지지 않는다.
+ * 팩토리를 거치지 않는 벌크 JPQL (em.createQuery("update ..").executeUpdate()) 은 QueryMemo.invalidate() 를 직접 호출한다.
+ */
+public class InvalidatingQueryFactory extends JPAQueryFactory {
+
+    private final EntityManager em;
+
+    private final QueryMemo queryMemo;
+
+    public InvalidatingQueryFactory(final EntityManager em, final QueryMemo queryMemo) {
+        super(em);
+        this.em = em;
+        this.queryMemo = queryMemo;
+    }
+
+    @Override
+    public JPAUpdateClause update(final EntityPath<?> path) {
+        return new JPAUpdateClause(em, path) {
+            @Override
+            public long execute() {
+                long updated = super.execute();
+                queryMemo.invalidate(path.getType());
+                return updated;
+            }
+        };
+    }
+
+    @Override
+    public JPADeleteClause delete(final EntityPath<?> path) {
+        return new JPADeleteClause(em, path) {
+            @Override
+            public long execute() {
+                long deleted = super.execute();
+                queryMemo.invalidate(path.getType());
+                return deleted;
+            }
+        };
+    }
+}
@@ -0,0 +1,50 @@
+package me.joshua.querydsl_study.support;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * p6spy 가 잰 SQL 실행 시간을 Micrometer 타이머 (jdbc.statement) 로 기록한다.
+ *
+ * 태그는 문장 종류 (select, insert, update, delete ...) 와 성공 여부만 사용한다.
+ * SQL 문자열을 태그로 쓰면 meter 수가 끝없이 늘어나므로 쿼리별 분포는 따로 모은다.
+ */
+@Component
+public class JdbcMetricsListener extends JdbcEventListener {
+
+    public static final String METER_NAME = "jdbc.statement";
+
+    private final MeterRegistry registry;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public JdbcMetricsListener(final MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void onAfterAnyExecute(final StatementInformation statementInformation,
+                                  final long timeElapsedNanos,
+                                  final SQLException e) {
+        String sql = statementInformation.getSql();
+        String type = sql == null ? "other" : SqlStatements.type(sql);
+        String outcome = e == null ? "success" : "error";
+        timer(type, outcome).record(timeElapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer timer(final String type, final String outcome) {
+        return timers.computeIfAbsent(type + ':' + outcome, key -> Timer.builder(METER_NAME)
+                .description("JDBC statement execution time measured by p6spy")
+                .tag("type", type)
+                .tag("outcome", outcome)
+                .register(registry));
+    }
+}
@@ -0,0 +1,17 @@
+package me.joshua.querydsl_study.support;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * ResultSet 의 현재 행을 JSON 객체 하나로 쓴다. (JsonStreamingQueryExecutor)
+ * 컬럼은 select 절 순서대로 1 부터 읽는다.
+ */
+@FunctionalInterface
+public interface JsonRowWriter {
+
+    void write(ResultSet resultSet, JsonGenerator generator) throws SQLException, IOException;
+}
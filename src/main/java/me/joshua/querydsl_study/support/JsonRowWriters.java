@@ -0,0 +1,49 @@
+package me.joshua.querydsl_study.support;
+
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import me.joshua.querydsl_study.dto.MemberDto;
+import me.joshua.querydsl_study.dto.UserDto;
+
+/**
+ * DTO 별 JsonRowWriter
+ *
+ * Jackson 이 DTO 를 직렬화할 때와 같은 모양으로 쓰지만 DTO 객체를 만들지 않는다.
+ * 필드 이름은 SerializedString 으로 한 번만 UTF-8 인코딩해 두고 그대로 복사한다.
+ * DTO 필드가 바뀌면 여기도 같이 바꿔야 한다. (JsonStreamingQueryExecutorTest 가 ObjectMapper 결과와 비교한다.)
+ */
+public final class JsonRowWriters {
+
+    private static final SerializableString USERNAME = new SerializedString("username");
+
+    private static final SerializableString NAME = new SerializedString("name");
+
+    private static final SerializableString AGE = new SerializedString("age");
+
+    /**
+     * {@link MemberDto} - select (username, age)
+     */
+    public static final JsonRowWriter MEMBER_DTO = (resultSet, generator) -> {
+        generator.writeStartObject();
+        generator.writeFieldName(USERNAME);
+        generator.writeString(resultSet.getString(1));
+        generator.writeFieldName(AGE);
+        generator.writeNumber(resultSet.getInt(2));
+        generator.writeEndObject();
+    };
+
+    /**
+     * {@link UserDto} - select (name, age), age 는 문자열로 쓴다.
+     */
+    public static final JsonRowWriter USER_DTO = (resultSet, generator) -> {
+        generator.writeStartObject();
+        generator.writeFieldName(NAME);
+        generator.writeString(resultSet.getString(1));
+        generator.writeFieldName(AGE);
+        generator.writeString(resultSet.getString(2));
+        generator.writeEndObject();
+    };
+
+    private JsonRowWriters() {
+    }
+}
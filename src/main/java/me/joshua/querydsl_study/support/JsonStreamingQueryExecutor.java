@@ -0,0 +1,114 @@
+package me.joshua.querydsl_study.support;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.querydsl.jpa.JPQLQuery;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 쿼리 결과를 ResultSet 에서 바로 JSON 배열로 출력 스트림에 쓴다.
+ *
+ * 일반 경로는 ResultSet -> Object[] -> DTO -> List -> Jackson (리플렉션) -> 응답 버퍼 순서로 복사된다.
+ * 여기서는 HqlSqlTranslator 로 만든 SQL 을 같은 커넥션으로 실행하고 행마다 JsonRowWriter 로 바로 쓴다.
+ * - 행 객체와 결과 List 를 만들지 않고, 영속성 컨텍스트도 거치지 않는다.
+ * - JsonGenerator 의 출력 버퍼는 Jackson 이 스레드별로 재사용 (BufferRecycler) 하고 가득 차면 out 으로 내보낸다.
+ *   응답 전체를 byte[] 로 만들지 않는다.
+ *
+ * limit / offset 이 있는 쿼리는 SQL 로 바꿀 수 없으므로 (HqlSqlTranslator) 전체 목록에만 사용한다.
+ *
+ * 대신 클라이언트에 다 쓸 때까지 트랜잭션과 JDBC 커넥션을 잡고 있다. 느린 클라이언트 몇 개가 커넥션 풀을 모두 잡지 않도록
+ * 동시에 쓰는 수를 maxConcurrency 로 제한하고, 자리가 없으면 기다리지 않고 QueryRejectedException (503) 으로 실패시킨다.
+ * 멈춘 클라이언트는 서블릿 컨테이너의 쓰기 시간 제한 (server.tomcat.connection-timeout) 까지 자리를 잡는다.
+ * 자리를 먼저 얻고 트랜잭션을 시작하므로 호출하는 쪽에서 트랜잭션을 열어두지 않아야 커넥션을 아낄 수 있다.
+ */
+@Component
+public class JsonStreamingQueryExecutor {
+
+    private final EntityManager em;
+
+    private final HqlSqlTranslator translator;
+
+    private final ObjectMapper objectMapper;
+
+    private final int fetchSize;
+
+    private final Semaphore permits;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    public JsonStreamingQueryExecutor(final EntityManager em,
+                                      final HqlSqlTranslator translator,
+                                      final ObjectMapper objectMapper,
+                                      final PlatformTransactionManager transactionManager,
+                                      @Value("${querydsl-study.export.fetch-size:1000}") final int fetchSize,
+                                      @Value("${querydsl-study.json-stream.max-concurrency:4}") final int maxConcurrency) {
+        this.em = em;
+        this.translator = translator;
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+        this.permits = new Semaphore(maxConcurrency);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * @return 쓴 행 수
+     */
+    public long write(final JPQLQuery<?> query, final JsonRowWriter rowWriter, final OutputStream out) {
+        if (!permits.tryAcquire()) {
+            throw new BoundedQueryExecutor.QueryRejectedException();
+        }
+        try {
+            return readOnlyTransaction.execute(status -> writeInTransaction(query, rowWriter, out));
+        } finally {
+            permits.release();
+        }
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    private long writeInTransaction(final JPQLQuery<?> query, final JsonRowWriter rowWriter, final OutputStream out) {
+        HqlSqlTranslator.Translation translation = translator.translate(query);
+
+        // JDBC 로 직접 실행하면 자동 flush 가 일어나지 않으므로 쓰기 지연된 변경을 먼저 반영한다.
+        em.flush();
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        return session.doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(translation.getSql())) {
+                translation.bind(statement, session);
+                statement.setFetchSize(fetchSize);
+                try (ResultSet resultSet = statement.executeQuery();
+                     JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+                    // 출력 스트림은 호출한 쪽 (서블릿 컨테이너) 이 닫는다.
+                    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+                    long count = 0;
+                    generator.writeStartArray();
+                    while (resultSet.next()) {
+                        rowWriter.write(resultSet, generator);
+                        count++;
+                    }
+                    generator.writeEndArray();
+                    return count;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
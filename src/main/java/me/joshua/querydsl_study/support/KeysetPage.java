@@ -0,0 +1,35 @@
+package me.joshua.querydsl_study.support;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keyset(seek) 페이징 결과
+ * nextToken 을 그대로 다음 요청에 넘기면 이어지는 페이지를 조회한다. (마지막 페이지면 null)
+ */
+@Getter
+public class KeysetPage<T> {
+
+    private final List<T> content;
+
+    private final String nextToken;
+
+    public KeysetPage(final List<T> content, final String nextToken) {
+        this.content = content;
+        this.nextToken = nextToken;
+    }
+
+    public boolean isHasNext() {
+        return nextToken != null;
+    }
+
+    public <R> KeysetPage<R> map(final Function<? super T, ? extends R> converter) {
+        List<R> converted = content.stream()
+                .map(converter)
+                .collect(Collectors.toList());
+        return new KeysetPage<>(converted, nextToken);
+    }
+}
@@ -0,0 +1,149 @@
+package me.joshua.querydsl_study.support;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.jpa.impl.JPAQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset(seek) 페이징
+ *
+ * offset 페이징은 앞의 offset 개 행을 읽고 버리므로 뒤 페이지로 갈수록 느려진다.
+ * keyset 페이징은 "직전 페이지의 마지막 행보다 뒤" 라는 조건으로 바로 찾아가므로
+ * 정렬 컬럼에 인덱스가 있다면 몇 번째 페이지든 첫 페이지와 비용이 같다.
+ *
+ * JPQL 은 (age, id) < (?, ?) 같은 row value 비교를 지원하지 않으므로 아래처럼 풀어서 만든다.
+ * age < ? or (age = ? and id < ?)
+ *
+ * 주의
+ * 1. 정렬 조건의 마지막은 반드시 유일한 값(보통 id)이어야 한다. 그렇지 않으면 행이 누락될 수 있다.
+ * 2. 정렬 컬럼에 null 이 있으면 안된다. (null 비교는 항상 false)
+ *
+ * 페이지 크기는 offset 페이징 (Pageable) 과 같은 최대값 (spring.data.web.pageable.max-page-size) 으로 제한한다.
+ */
+@Component
+public class KeysetPaginator {
+
+    private final int maxSize;
+
+    public KeysetPaginator(@Value("${spring.data.web.pageable.max-page-size:2000}") final int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @param query         정렬 / limit 을 제외한 조회 쿼리 (이 메서드가 where, orderBy, limit 를 추가한다.)
+     * @param requestedSize 페이지 크기, 최대값보다 크면 최대값으로 줄인다.
+     * @param token         이전 페이지의 nextToken, 첫 페이지면 null
+     * @param keyExtractor  결과 행에서 orders 순서대로 정렬 키 값을 꺼내는 함수
+     * @param orders        정렬 조건, 마지막은 유일 키
+     */
+    public <T> KeysetPage<T> fetch(final JPAQuery<T> query,
+                                   final int requestedSize,
+                                   final String token,
+                                   final Function<? super T, Object[]> keyExtractor,
+                                   final OrderSpecifier<?>... orders) {
+        if (requestedSize < 1) {
+            throw new IllegalArgumentException("size 는 1 이상이어야 합니다. size = " + requestedSize);
+        }
+        int size = Math.min(requestedSize, maxSize);
+        if (orders.length == 0) {
+            throw new IllegalArgumentException("keyset 페이징에는 정렬 조건이 필요합니다.");
+        }
+
+        List<Object> lastKey = token == null ? null : KeysetToken.decode(token);
+
+        // 한 건을 더 읽어서 다음 페이지 존재 여부를 count 쿼리 없이 판단한다.
+        List<T> rows = seek(query, lastKey, orders)
+                .limit(size + 1)
+                .fetch();
+
+        if (rows.size() <= size) {
+            return new KeysetPage<>(rows, null);
+        }
+
+        List<T> content = new ArrayList<>(rows.subList(0, size));
+        Object[] lastKey = keyExtractor.apply(content.get(size - 1));
+        return new KeysetPage<>(content, KeysetToken.encode(Arrays.asList(lastKey)));
+    }
+
+    /**
+     * lastKey 보다 뒤에 있는 행을 orders 순서로 조회하도록 query 에 where, orderBy 를 추가한다. (limit 은 붙이지 않는다.)
+     * fetch 가 실행하는 쿼리와 같으므로 실행 계획 검사 (QueryPlanRegistry) 에 등록할 때도 쓴다.
+     *
+     * @param lastKey 직전 페이지 마지막 행의 정렬 키 (orders 순서), 첫 페이지면 null
+     */
+    public <T> JPAQuery<T> seek(final JPAQuery<T> query, final List<Object> lastKey, final OrderSpecifier<?>... orders) {
+        if (lastKey != null) {
+            query.where(after(orders, lastKey));
+        }
+        return query.orderBy(orders);
+    }
+
+    /**
+     * (k1, k2, ..., kn) 가 토큰의 값보다 뒤에 있는 조건
+     * k1 >= v1 and (k1 > v1 or (k1 = v1 and k2 > v2) or ...) (내림차순이면 <=, < 로 비교)
+     *
+     * 앞의 k1 >= v1 은 뒤의 OR 조건에 이미 포함되지만, 따로 두어야 DB 가 OR 를 풀지 않고도
+     * 정렬 컬럼 인덱스를 k1 범위로 읽는다.
+     */
+    private Predicate after(final OrderSpecifier<?>[] orders, final List<Object> values) {
+        if (values.size() != orders.length) {
+            throw new KeysetToken.InvalidKeysetTokenException("keyset 토큰과 정렬 조건의 개수가 다릅니다.");
+        }
+
+        BooleanBuilder after = new BooleanBuilder();
+        BooleanBuilder equalSoFar = new BooleanBuilder();
+        Predicate bound = null;
+
+        for (int i = 0; i < orders.length; i++) {
+            Expression<?> target = orders[i].getTarget();
+            Object coerced = coerce(values.get(i), target.getType());
+            if (!target.getType().isInstance(coerced)) {
+                throw new KeysetToken.InvalidKeysetTokenException("keyset 토큰의 값이 정렬 조건의 타입과 다릅니다.");
+            }
+            Expression<?> value = Expressions.constant(coerced);
+
+            Ops direction = orders[i].isAscending() ? Ops.GT : Ops.LT;
+            if (i == 0) {
+                bound = Expressions.predicate(orders[i].isAscending() ? Ops.GOE : Ops.LOE, target, value);
+            }
+            after.or(new BooleanBuilder(equalSoFar).and(Expressions.predicate(direction, target, value)));
+            equalSoFar.and(Expressions.predicate(Ops.EQ, target, value));
+        }
+        if (orders.length == 1) {
+            return after;
+        }
+        return new BooleanBuilder(bound).and(after);
+    }
+
+    /**
+     * 토큰은 JSON 으로 직렬화 되므로 숫자가 Integer / Long 중 무엇으로 돌아올지 알 수 없다.
+     * 정렬 대상 표현식의 타입에 맞춰서 바인딩해야 하이버네이트가 파라미터 타입 오류를 내지 않는다.
+     */
+    private static Object coerce(final Object value, final Class<?> type) {
+        if (!(value instanceof Number)) {
+            return value;
+        }
+        Number number = (Number) value;
+        if (type == Long.class) {
+            return number.longValue();
+        }
+        if (type == Integer.class) {
+            return number.intValue();
+        }
+        if (type == Double.class) {
+            return number.doubleValue();
+        }
+        return value;
+    }
+}
@@ -0,0 +1,56 @@
+package me.joshua.querydsl_study.support;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * 마지막으로 내려준 행의 정렬 키 값을 불투명한(opaque) 문자열로 인코딩한다.
+ * 클라이언트는 토큰의 내용을 알 필요 없이 다음 요청에 그대로 돌려주기만 하면 된다.
+ * 토큰은 클라이언트가 보낸 값이므로 해석할 수 없으면 400 으로 응답한다. (InvalidKeysetTokenException)
+ */
+final class KeysetToken {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final TypeReference<List<Object>> VALUES_TYPE = new TypeReference<>() {};
+
+    private KeysetToken() {
+    }
+
+    static String encode(final List<Object> values) {
+        try {
+            byte[] json = MAPPER.writeValueAsBytes(values);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("keyset 토큰을 만들 수 없습니다. values = " + values, e);
+        }
+    }
+
+    static List<Object> decode(final String token) {
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(token);
+            return MAPPER.readValue(new String(json, StandardCharsets.UTF_8), VALUES_TYPE);
+        } catch (IllegalArgumentException | JsonProcessingException e) {
+            throw new InvalidKeysetTokenException("잘못된 keyset 토큰입니다. token = " + token, e);
+        }
+    }
+
+    @ResponseStatus (HttpStatus.BAD_REQUEST)
+    public static class InvalidKeysetTokenException extends IllegalArgumentException {
+
+        public InvalidKeysetTokenException(final String message) {
+            super(message);
+        }
+
+        public InvalidKeysetTokenException(final String message, final Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package me.joshua.querydsl_study.support;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 요청 하나를 N+1 감지 범위로 묶는다.
+ *
+ * 비동기 요청 (CompletableFuture, StreamingResponseBody) 은 요청 스레드가 먼저 돌아오므로
+ * 범위를 요청 스레드에서 떼어내기만 하고, 비동기 처리가 끝날 때 (AsyncListener) 닫는다.
+ * 그 사이 다른 스레드의 쿼리는 NPlusOneDetector.propagate() 로 감싼 작업 (BoundedQueryExecutor, MVC 비동기 실행기) 만 센다.
+ */
+@Component
+@RequiredArgsConstructor
+public class NPlusOneDetectionFilter extends OncePerRequestFilter {
+
+    private final NPlusOneDetector detector;
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request,
+                                    final HttpServletResponse response,
+                                    final FilterChain filterChain) throws ServletException, IOException {
+        NPlusOneDetector.Scope scope = detector.begin();
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ClosingListener(scope));
+                async = true;
+            }
+        } finally {
+            if (async) {
+                detector.release(scope);
+            } else {
+                scope.close();
+            }
+        }
+    }
+
+    /**
+     * timeout / error 뒤에도 onComplete 는 호출되므로 거기서만 닫는다.
+     */
+    private static final class ClosingListener implements AsyncListener {
+
+        private final NPlusOneDetector.Scope scope;
+
+        private ClosingListener(final NPlusOneDetector.Scope scope) {
+            this.scope = scope;
+        }
+
+        @Override
+        public void onComplete(final AsyncEvent event) {
+            scope.close();
+        }
+
+        @Override
+        public void onTimeout(final AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(final AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(final AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package me.joshua.querydsl_study.support;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * N+1 감지기
+ *
+ * p6spy 가 실행하는 모든 SQL 을 받아서 범위(Scope) 안에서 같은 SELECT 가 몇 번 실행됐는지 센다.
+ * 지연 로딩은 id 만 다른 같은 SQL 을 반복하므로, maxRepeats 를 넘으면 N+1 로 보고
+ * 처음 넘은 순간의 호출 위치(애플리케이션 코드)를 함께 기록한다.
+ *
+ * use_sql_comments 가 켜져 있으면 하이버네이트가 엔티티 로딩 SQL 앞에 "load 엔티티명" 주석을 붙이므로
+ * 어떤 엔티티의 지연 로딩인지도 알려준다.
+ *
+ * 범위는 요청 단위(NPlusOneDetectionFilter) 또는 직접 begin() 으로 연다.
+ * 범위가 열려 있지 않으면 아무 일도 하지 않는다.
+ *
+ * 범위는 스레드에 묶이므로 다른 스레드에서 실행하는 작업은 propagate() 로 감싸야 같은 범위에서 센다.
+ * (BoundedQueryExecutor, MVC 비동기 실행기 (StreamingResponseBody) 는 이미 감싼다.)
+ * 범위는 마지막으로 참여한 스레드가 끝날 때 닫힌다.
+ */
+@Slf4j
+@Component
+public class NPlusOneDetector extends JdbcEventListener {
+
+    private static final Pattern LOAD_COMMENT = Pattern.compile("^/\\*\\s*load (?:one-to-many )?([\\w.$]+)");
+
+    private static final String APPLICATION_PACKAGE = "me.joshua.querydsl_study.";
+
+    private final ThreadLocal<Scope> current = new ThreadLocal<>();
+
+    private final Mode mode;
+
+    private final int maxRepeats;
+
+    public NPlusOneDetector(@Value("${querydsl-study.n-plus-one.mode:log}") final Mode mode,
+                            @Value("${querydsl-study.n-plus-one.max-repeats:2}") final int maxRepeats) {
+        this.mode = mode;
+        this.maxRepeats = maxRepeats;
+    }
+
+    /**
+     * 현재 스레드에서 감지를 시작한다. 이미 열린 범위가 있으면 그 범위에 합쳐진다.
+     */
+    public Scope begin() {
+        Scope scope = current.get();
+        if (scope == null) {
+            scope = new Scope();
+            current.set(scope);
+        }
+        scope.depth.incrementAndGet();
+        return scope;
+    }
+
+    /**
+     * 지금 스레드의 범위를 작업을 실행하는 스레드로 넘긴다. 범위가 없으면 작업을 그대로 돌려준다.
+     * 작업을 제출하는 스레드에서 호출해야 한다.
+     */
+    public <T> Supplier<T> propagate(final Supplier<T> work) {
+        Scope scope = current.get();
+        if (scope == null) {
+            return work;
+        }
+        return () -> {
+            Scope previous = scope.attach();
+            try {
+                return work.get();
+            } finally {
+                scope.detach(previous);
+            }
+        };
+    }
+
+    public Runnable propagate(final Runnable work) {
+        Supplier<Void> supplier = propagate(() -> {
+            work.run();
+            return null;
+        });
+        return supplier::get;
+    }
+
+    /**
+     * 범위를 닫지 않고 지금 스레드에서만 떼어낸다. (비동기 요청이 끝날 때 다른 스레드에서 닫는 경우)
+     */
+    public void release(final Scope scope) {
+        if (current.get() == scope) {
+            current.remove();
+        }
+    }
+
+    @Override
+    public void onAfterAnyExecute(final StatementInformation statementInformation,
+                                  final long timeElapsedNanos,
+                                  final SQLException e) {
+        Scope scope = current.get();
+        if (scope == null || mode == Mode.OFF) {
+            return;
+        }
+        String sql = statementInformation.getSql();
+        if (sql != null && SqlStatements.isSelect(sql)) {
+            scope.record(sql);
+        }
+    }
+
+    /**
+     * 스택에서 이 감지기와 프레임워크를 제외한 첫 애플리케이션 코드 위치
+     */
+    private static String callSite() {
+        return Arrays.stream(new Throwable().getStackTrace())
+                .filter(frame -> frame.getClassName().startsWith(APPLICATION_PACKAGE))
+                .filter(frame -> !isDetectorFrame(frame.getClassName()))
+                .filter(frame -> !frame.getClassName().contains("$$"))
+                .map(StackTraceElement::toString)
+                .findFirst()
+                .orElse("unknown");
+    }
+
+    private static boolean isDetectorFrame(final String className) {
+        String detector = NPlusOneDetector.class.getName();
+        return className.equals(detector) || className.startsWith(detector + "$");
+    }
+
+    public enum Mode {
+        /** 감지하지 않는다. */
+        OFF,
+        /** 경고 로그만 남긴다. */
+        LOG,
+        /** 범위를 닫을 때 NPlusOneException 을 던진다. (테스트용) */
+        FAIL
+    }
+
+    @Getter
+    public static class Violation {
+
+        private final String sql;
+
+        private final String entityName;
+
+        private final String callSite;
+
+        private int count;
+
+        private Violation(final String sql, final String entityName, final String callSite, final int count) {
+            this.sql = sql;
+            this.entityName = entityName;
+            this.callSite = callSite;
+            this.count = count;
+        }
+
+        @Override
+        public String toString() {
+            return "N+1 의심: " + (entityName == null ? "" : entityName + " ")
+                    + "같은 SELECT " + count + "회 실행, 호출 위치 = " + callSite
+                    + System.lineSeparator() + sql;
+        }
+    }
+
+    public static class NPlusOneException extends RuntimeException {
+
+        public NPlusOneException(final List<Violation> violations) {
+            super(violations.stream()
+                    .map(Violation::toString)
+                    .collect(Collectors.joining(System.lineSeparator())));
+        }
+    }
+
+    public class Scope implements AutoCloseable {
+
+        private final Map<String, Integer> counts = new HashMap<>();
+
+        private final Map<String, Violation> violations = new LinkedHashMap<>();
+
+        private final AtomicInteger depth = new AtomicInteger();
+
+        private Scope attach() {
+            Scope previous = current.get();
+            depth.incrementAndGet();
+            current.set(this);
+            return previous;
+        }
+
+        private void detach(final Scope previous) {
+            if (previous == null) {
+                current.remove();
+            } else {
+                current.set(previous);
+            }
+            close();
+        }
+
+        private synchronized void record(final String sql) {
+            int count = counts.merge(sql, 1, Integer::sum);
+            if (count <= maxRepeats) {
+                return;
+            }
+            Violation violation = violations.get(sql);
+            if (violation == null) {
+                violations.put(sql, new Violation(sql, entityName(sql), callSite(), count));
+            } else {
+                violation.count = count;
+            }
+        }
+
+        private String entityName(final String sql) {
+            Matcher matcher = LOAD_COMMENT.matcher(sql.trim());
+            return matcher.find() ? matcher.group(1) : null;
+        }
+
+        public synchronized List<Violation> getViolations() {
+            return new ArrayList<>(violations.values());
+        }
+
+        /**
+         * 가장 바깥 범위가 닫힐 때 모드에 따라 로그를 남기거나 예외를 던진다.
+         */
+        @Override
+        public void close() {
+            if (depth.decrementAndGet() > 0) {
+                return;
+            }
+            release(this);
+            List<Violation> found = getViolations();
+            if (found.isEmpty()) {
+                return;
+            }
+            if (mode == Mode.FAIL) {
+                throw new NPlusOneException(found);
+            }
+            found.forEach(violation -> log.warn("{}", violation));
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package me.joshua.querydsl_study.support;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * fetchResults() 를 대신하는 페이징 실행기
+ *
+ * fetchResults() 는 항상 count 쿼리를 한 번 더 날린다. 여기서는
+ * 1. 첫 페이지인데 content 가 페이지 크기보다 작거나, 마지막 페이지인 경우 content 로 total 을 계산하고 count 쿼리를 생략한다.
+ *    (PageableExecutionUtils)
+ * 2. 같은 조건의 total 은 CountCache 에 TTL 동안 보관한다.
+ * 3. fetchPageAsync 는 count 쿼리를 별도 스레드 / 별도 커넥션(REQUIRES_NEW 읽기 전용 트랜잭션)에서 동시에 실행한다.
+ *
+ * count 쿼리는 content 쿼리와 같은 조건으로 select(xxx.count()) 해서 넘긴다.
+ * 조인이 필요 없는 count 라면 조인을 빼서 더 가볍게 만들 수 있다.
+ */
+@Component
+public class PagingQueryExecutor {
+
+    private final EntityManager em;
+
+    private final CountCache countCache;
+
+    private final Executor countQueryExecutor;
+
+    private final TransactionTemplate countTransaction;
+
+    public PagingQueryExecutor(final EntityManager em,
+                               final CountCache countCache,
+                               @Qualifier("countQueryExecutor") final Executor countQueryExecutor,
+                               final PlatformTransactionManager transactionManager) {
+        this.em = em;
+        this.countCache = countCache;
+        this.countQueryExecutor = countQueryExecutor;
+        this.countTransaction = new TransactionTemplate(transactionManager);
+        this.countTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.countTransaction.setReadOnly(true);
+    }
+
+    public <T> Page<T> fetchPage(final JPAQuery<T> contentQuery,
+                                 final JPAQuery<Long> countQuery,
+                                 final Pageable pageable) {
+        List<T> content = fetchContent(contentQuery, pageable);
+
+        String key = QueryKeys.of(countQuery);
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> countCache.getOrCompute(key, () -> count(countQuery)));
+    }
+
+    /**
+     * 컬렉션 fetch join 페이징 (2단계)
+     *
+     * 컬렉션을 fetch join 한 쿼리에 offset / limit 을 주면 SQL 에는 limit 이 빠지고
+     * 하이버네이트가 전체 결과를 메모리에 올린 뒤 잘라낸다. (HHH000104)
+     * 1. idQuery 로 루트 id 만 페이징하고 (count 는 fetchPage 와 같다.)
+     * 2. loader 로 그 id 들만 fetch join 해서 조회한 뒤 idQuery 순서대로 다시 정렬한다.
+     *
+     * loader 는 where id in (:ids) 로 조회하면 된다. 중복된 루트 (fetch join 으로 늘어난 행) 는 하나만 남긴다.
+     * 두 쿼리 사이에 삭제된 id 는 결과에서 빠진다.
+     */
+    public <T, ID> Page<T> fetchPageByIds(final JPAQuery<ID> idQuery,
+                                          final JPAQuery<Long> countQuery,
+                                          final Pageable pageable,
+                                          final Function<List<ID>, List<T>> loader,
+                                          final Function<? super T, ID> idOf) {
+        Page<ID> ids = fetchPage(idQuery, countQuery, pageable);
+        if (!ids.hasContent()) {
+            return new PageImpl<>(new ArrayList<>(), pageable, ids.getTotalElements());
+        }
+
+        Map<ID, T> loaded = new HashMap<>();
+        for (T row : loader.apply(ids.getContent())) {
+            loaded.putIfAbsent(idOf.apply(row), row);
+        }
+
+        List<T> content = new ArrayList<>(ids.getNumberOfElements());
+        for (ID id : ids) {
+            T row = loaded.get(id);
+            if (row != null) {
+                content.add(row);
+            }
+        }
+        return new PageImpl<>(content, pageable, ids.getTotalElements());
+    }
+
+    /**
+     * content 와 count 를 동시에 조회한다.
+     *
+     * count 가 생략 가능한 페이지인지는 content 를 받아봐야 알 수 있으므로
+     * 캐시에 total 이 없으면 count 쿼리는 일단 시작하고, 필요 없으면 실행 중인 statement 를 취소한다. (Statement.cancel)
+     * 커넥션을 동시에 2개 사용하므로 커넥션 풀 크기에 여유가 있을 때만 사용한다.
+     *
+     * 별도 커넥션에서는 커밋되지 않은 변경이 보이지 않으므로 쓰기 트랜잭션 안에서는 fetchPage 와 같이 순서대로 실행한다.
+     * count 스레드 풀이 가득 차도 fetchPage 로 실행한다.
+     */
+    public <T> Page<T> fetchPageAsync(final JPAQuery<T> contentQuery,
+                                      final JPAQuery<Long> countQuery,
+                                      final Pageable pageable) {
+        String key = QueryKeys.of(countQuery);
+        Long cached = countCache.get(key);
+        if (isWriteTransaction() || cached != null) {
+            return fetchPage(contentQuery, countQuery, pageable);
+        }
+
+        AsyncCount total = new AsyncCount(countQuery);
+        try {
+            countQueryExecutor.execute(total);
+        } catch (TaskRejectedException e) {
+            return fetchPage(contentQuery, countQuery, pageable);
+        }
+
+        try {
+            List<T> content = fetchContent(contentQuery, pageable);
+            return PageableExecutionUtils.getPage(content, pageable, () -> {
+                long count = total.result.join();
+                countCache.put(key, count);
+                return count;
+            });
+        } finally {
+            total.cancel();
+        }
+    }
+
+    private static boolean isWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private <T> List<T> fetchContent(final JPAQuery<T> contentQuery, final Pageable pageable) {
+        return contentQuery
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+    }
+
+    private long count(final JPAQuery<Long> countQuery) {
+        Long count = countQuery.fetchOne();
+        return count == null ? 0L : count;
+    }
+
+    /**
+     * count 스레드에서 실행되는 count 쿼리
+     * cancel() 은 아직 시작하지 않았으면 실행하지 않고, 실행 중이면 그 세션의 statement 를 취소한다. (Session.cancelQuery)
+     */
+    private final class AsyncCount implements Runnable {
+
+        private final JPAQuery<Long> countQuery;
+
+        private final CompletableFuture<Long> result = new CompletableFuture<>();
+
+        private final AtomicReference<Session> running = new AtomicReference<>();
+
+        private volatile boolean cancelled;
+
+        private AsyncCount(final JPAQuery<Long> countQuery) {
+            this.countQuery = countQuery;
+        }
+
+        @Override
+        public void run() {
+            try {
+                result.complete(countTransaction.execute(status -> {
+                    running.set(em.unwrap(Session.class));
+                    try {
+                        if (cancelled) {
+                            throw new CancellationException();
+                        }
+                        return count(countQuery);
+                    } finally {
+                        running.set(null);
+                    }
+                }));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }
+
+        private void cancel() {
+            if (result.isDone()) {
+                return;
+            }
+            cancelled = true;
+            Session session = running.get();
+            if (session != null) {
+                try {
+                    session.cancelQuery();
+                } catch (RuntimeException ignored) {
+                    // 취소하는 사이에 count 가 끝나서 세션이 닫힌 경우
+                }
+            }
+        }
+    }
+}
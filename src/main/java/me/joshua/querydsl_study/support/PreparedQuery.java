@@ -0,0 +1,162 @@
+package me.joshua.querydsl_study.support;
+
+import com.querydsl.core.NonUniqueResultException;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.QueryModifiers;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.jpa.JPAProvider;
+import com.querydsl.jpa.JPQLQuery;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAUtil;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 미리 준비된 QueryDSL 쿼리
+ *
+ * queryFactory.selectFrom(...).where(...) 는 호출할 때마다 쿼리 객체를 만들고 JPQL 문자열로 직렬화한다.
+ * 자주 실행되는 쿼리는 바뀌는 값만 Param 으로 빼서 한 번만 만들어 두고, 실행할 때는 값만 바인딩한다.
+ *
+ * JPQL 문자열이 매번 같으므로 하이버네이트의 QueryPlanCache 에서 파싱 결과(쿼리 플랜)를 재사용한다.
+ * (hibernate.query.plan_cache_max_size)
+ *
+ * 사용 예
+ * Param<String> username = new Param<>(String.class, "username");
+ * PreparedQuery<Member> query = PreparedQuery.of(em, queryFactory.selectFrom(member).where(member.username.eq(username)));
+ * Member member1 = query.bind(username, "member1").fetchOne();
+ *
+ * 불변 객체이므로 스프링의 공유 EntityManager(프록시)를 넘기면 빈 필드로 두고 여러 스레드에서 사용해도 된다.
+ */
+public final class PreparedQuery<T> {
+
+    private final EntityManager em;
+
+    private final String jpql;
+
+    private final List<Object> constants;
+
+    private final FactoryExpression<T> projection;
+
+    private final QueryModifiers modifiers;
+
+    private PreparedQuery(final EntityManager em,
+                          final String jpql,
+                          final List<Object> constants,
+                          final FactoryExpression<T> projection,
+                          final QueryModifiers modifiers) {
+        this.em = em;
+        this.jpql = jpql;
+        this.constants = constants;
+        this.projection = projection;
+        this.modifiers = modifiers;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> PreparedQuery<T> of(final EntityManager em, final JPQLQuery<T> query) {
+        QueryMetadata metadata = query.getMetadata();
+        JPQLSerializer serializer = new JPQLSerializer(JPAProvider.getTemplates(em), em);
+        serializer.serialize(metadata, false, null);
+
+        Expression<?> select = metadata.getProjection();
+        FactoryExpression<T> projection = select instanceof FactoryExpression ? (FactoryExpression<T>) select : null;
+
+        return new PreparedQuery<>(
+                em,
+                serializer.toString(),
+                Collections.unmodifiableList(new ArrayList<>(serializer.getConstants())),
+                projection,
+                metadata.getModifiers());
+    }
+
+    public String getJpql() {
+        return jpql;
+    }
+
+    public <P> Execution bind(final ParamExpression<P> param, final P value) {
+        return new Execution().bind(param, value);
+    }
+
+    /**
+     * Param 이 없는 쿼리 실행
+     */
+    public List<T> fetch() {
+        return new Execution().fetch();
+    }
+
+    public T fetchOne() {
+        return new Execution().fetchOne();
+    }
+
+    /**
+     * 한 번의 실행에 필요한 바인딩 값
+     */
+    public final class Execution {
+
+        private final Map<ParamExpression<?>, Object> values = new HashMap<>();
+
+        private Execution() {
+        }
+
+        public <P> Execution bind(final ParamExpression<P> param, final P value) {
+            values.put(param, value);
+            return this;
+        }
+
+        public List<T> fetch() {
+            List<?> rows = createQuery().getResultList();
+            return transform(rows);
+        }
+
+        /**
+         * 결과가 없으면 null, 둘 이상이면 NonUniqueResultException
+         */
+        public T fetchOne() {
+            Query query = createQuery();
+            if (modifiers.getLimit() == null) {
+                // 두 건만 읽어도 유일한지 알 수 있다.
+                query.setMaxResults(2);
+            }
+            List<T> rows = transform(query.getResultList());
+            if (rows.isEmpty()) {
+                return null;
+            }
+            if (rows.size() > 1) {
+                throw new NonUniqueResultException();
+            }
+            return rows.get(0);
+        }
+
+        private Query createQuery() {
+            Query query = em.createQuery(jpql);
+            JPAUtil.setConstants(query, constants, values);
+            if (modifiers.getLimitAsInteger() != null) {
+                query.setMaxResults(modifiers.getLimitAsInteger());
+            }
+            if (modifiers.getOffsetAsInteger() != null) {
+                query.setFirstResult(modifiers.getOffsetAsInteger());
+            }
+            return query;
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<T> transform(final List<?> rows) {
+            if (projection == null) {
+                return (List<T>) rows;
+            }
+            List<T> result = new ArrayList<>(rows.size());
+            for (Object row : rows) {
+                Object[] args = row instanceof Object[] ? (Object[]) row : new Object[]{row};
+                result.add(projection.newInstance(args));
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package me.joshua.querydsl_study.support;
+
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.QueryModifiers;
+import com.querydsl.jpa.JPQLQuery;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.JPQLTemplates;
+
+/**
+ * QueryDSL 쿼리를 캐시 키로 쓸 수 있는 문자열로 만든다.
+ * JPQL 문자열만으로는 바인딩 값이 빠지므로 상수, 파라미터, limit / offset 까지 포함한다.
+ */
+public final class QueryKeys {
+
+    private QueryKeys() {
+    }
+
+    public static String of(final JPQLQuery<?> query) {
+        QueryMetadata metadata = query.getMetadata();
+        JPQLSerializer serializer = new JPQLSerializer(JPQLTemplates.DEFAULT);
+        serializer.serialize(metadata, false, null);
+
+        QueryModifiers modifiers = metadata.getModifiers();
+        return serializer.toString()
+                + " constants=" + serializer.getConstants()
+                + " params=" + metadata.getParams()
+                + " limit=" + modifiers.getLimit()
+                + " offset=" + modifiers.getOffset();
+    }
+}
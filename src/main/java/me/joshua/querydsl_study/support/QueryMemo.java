@@ -0,0 +1,366 @@
+package me.joshua.querydsl_study.support;
+
+import com.querydsl.core.JoinExpression;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.types.CollectionExpression;
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.SubQueryExpression;
+import com.querydsl.core.types.TemplateExpression;
+import com.querydsl.core.types.Visitor;
+import com.querydsl.jpa.JPQLQuery;
+import com.querydsl.jpa.impl.AbstractJPAQuery;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.FlushMode;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
+
+import javax.persistence.Entity;
+import javax.persistence.EntityManager;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * 트랜잭션 범위 쿼리 결과 메모
+ *
+ * 한 요청 (트랜잭션) 안에서 여러 서비스가 같은 쿼리 (같은 팀 조회, 같은 count ...) 를 실행하면
+ * 두 번째부터는 SQL 을 실행하지 않고 처음 결과를 돌려준다.
+ *
+ * - 키는 QueryKeys (JPQL + 바인딩 값 + limit / offset) 와 JPQL 에 나타나지 않는 실행 옵션
+ *   (lock mode, flush mode, 힌트 - CACHEABLE, READ_ONLY ...) 이다. 옵션을 확인할 수 없는 쿼리 타입은 메모하지 않는다.
+ * - 쿼리에 등장하는 엔티티 (join, 서브쿼리 포함) 가 이 트랜잭션에서 insert / update / delete 되면
+ *   QueryMemoEventListener 가 해당 결과를 지운다. JPQL 벌크 연산은 이벤트가 없으므로 JPAQueryFactory 빈 (InvalidatingQueryFactory) 이
+ *   실행 직후 invalidate() 를 호출한다.
+ * - 메모된 결과를 돌려주기 전에 flush 되지 않은 변경이 있으면 쿼리를 실행할 때처럼 먼저 flush 한다. (이때 이벤트로 무효화된다.)
+ *   메모에 없으면 쿼리 실행의 AUTO flush 에 맡기고, 영속성 컨텍스트가 비어 있으면 dirty 검사를 하지 않는다.
+ * - em.clear() / detach 되면 결과 속 엔티티가 준영속이 되므로 지운다.
+ * - 다른 트랜잭션이 커밋한 변경은 보이지 않는다. (메모된 쿼리는 REPEATABLE READ 처럼 동작한다.)
+ *
+ * 트랜잭션 밖에서는 그대로 실행한다.
+ * 트랜잭션마다 아낀 쿼리 수를 query.memo.avoided 분포로 기록한다.
+ */
+@Component
+public class QueryMemo {
+
+    public static final String HIT_METER_NAME = "query.memo";
+
+    public static final String AVOIDED_METER_NAME = "query.memo.avoided";
+
+    private static final Field LOCK_MODE = queryField("lockMode");
+
+    private static final Field FLUSH_MODE = queryField("flushMode");
+
+    private static final Field HINTS = queryField("hints");
+
+    private final EntityManager em;
+
+    private final boolean enabled;
+
+    private final int maxEntries;
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    private final DistributionSummary avoided;
+
+    public QueryMemo(final EntityManager em,
+                     final MeterRegistry registry,
+                     @Value("${querydsl-study.query-memo.enabled:true}") final boolean enabled,
+                     @Value("${querydsl-study.query-memo.max-entries:256}") final int maxEntries) {
+        this.em = em;
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.hits = Counter.builder(HIT_METER_NAME)
+                .description("Queries answered from the transaction-scoped memo")
+                .tag("result", "hit")
+                .register(registry);
+        this.misses = Counter.builder(HIT_METER_NAME)
+                .description("Queries answered from the transaction-scoped memo")
+                .tag("result", "miss")
+                .register(registry);
+        this.avoided = DistributionSummary.builder(AVOIDED_METER_NAME)
+                .description("Queries avoided per transaction")
+                .register(registry);
+    }
+
+    public <T> List<T> fetch(final JPQLQuery<T> query) {
+        List<T> result = memoize("fetch", query, query::fetch);
+        return new ArrayList<>(result);
+    }
+
+    public <T> T fetchOne(final JPQLQuery<T> query) {
+        return memoize("fetchOne", query, query::fetchOne);
+    }
+
+    public <T> T fetchFirst(final JPQLQuery<T> query) {
+        return memoize("fetchFirst", query, query::fetchFirst);
+    }
+
+    /**
+     * count 쿼리 (select count(..)) 를 fetchOne 으로 실행한다.
+     */
+    public long fetchCount(final JPQLQuery<Long> query) {
+        Long count = memoize("fetchOne", query, query::fetchOne);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * 벌크 연산 후 해당 엔티티가 등장하는 결과를 지운다.
+     */
+    public void invalidate(final Class<?> entityType) {
+        Memo memo = current();
+        if (memo != null) {
+            memo.entries.values().removeIf(entry -> entry.entityTypes.contains(entityType));
+        }
+    }
+
+    public void invalidateAll() {
+        Memo memo = current();
+        if (memo != null) {
+            memo.entries.clear();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <R> R memoize(final String kind, final JPQLQuery<?> query, final Supplier<R> executor) {
+        if (!enabled || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return executor.get();
+        }
+        String options = options(query);
+        if (options == null) {
+            return executor.get();
+        }
+        Memo memo = currentOrBind();
+
+        String key = kind + ' ' + options + QueryKeys.of(query);
+        Entry entry = memo.entries.get(key);
+        if (entry != null) {
+            flushIfDirty();
+            // flush 이벤트로 지워졌을 수 있다.
+            entry = memo.entries.get(key);
+        }
+        if (entry != null) {
+            memo.hits++;
+            hits.increment();
+            return (R) entry.result;
+        }
+
+        misses.increment();
+        R result = executor.get();
+        if (memo.entries.size() >= maxEntries) {
+            memo.entries.remove(memo.entries.keySet().iterator().next());
+        }
+        memo.entries.put(key, new Entry(result, entityTypes(query.getMetadata())));
+        return result;
+    }
+
+    /**
+     * 쿼리를 실행했다면 AUTO flush 가 먼저 일어났을 것이므로 똑같이 flush 한다.
+     * 읽기 전용 트랜잭션 (MANUAL) 에서는 쿼리도 flush 하지 않으므로 건너뛴다.
+     * 관리 중인 엔티티가 없으면 바뀐 것도 없으므로 dirty 검사 (모든 엔티티 비교) 를 하지 않는다.
+     */
+    private void flushIfDirty() {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        FlushMode flushMode = session.getHibernateFlushMode();
+        if (flushMode != FlushMode.AUTO && flushMode != FlushMode.ALWAYS) {
+            return;
+        }
+        if (session.getPersistenceContextInternal().getNumberOfManagedEntities() == 0) {
+            return;
+        }
+        if (session.isDirty()) {
+            session.flush();
+        }
+    }
+
+    /**
+     * JPQL 에 나타나지 않는 실행 옵션. 없으면 빈 문자열, 확인할 수 없는 쿼리 타입이면 null
+     * 같은 lock mode 로 다시 조회하면 락은 이미 이 트랜잭션이 잡고 있으므로 메모된 결과를 돌려줘도 된다.
+     */
+    static String options(final JPQLQuery<?> query) {
+        if (!(query instanceof AbstractJPAQuery)) {
+            return null;
+        }
+        Object lockMode = ReflectionUtils.getField(LOCK_MODE, query);
+        Object flushMode = ReflectionUtils.getField(FLUSH_MODE, query);
+        String hints = String.valueOf(ReflectionUtils.getField(HINTS, query));
+
+        StringBuilder options = new StringBuilder();
+        if (lockMode != null) {
+            options.append("lock=").append(lockMode).append(' ');
+        }
+        if (flushMode != null) {
+            options.append("flush=").append(flushMode).append(' ');
+        }
+        if (!"{}".equals(hints)) {
+            options.append("hints=").append(hints).append(' ');
+        }
+        return options.toString();
+    }
+
+    /**
+     * AbstractJPAQuery 는 lock mode, flush mode, 힌트를 꺼내는 메서드가 없으므로 필드를 읽는다.
+     */
+    private static Field queryField(final String name) {
+        Field field = ReflectionUtils.findField(AbstractJPAQuery.class, name);
+        Assert.state(field != null, () -> "AbstractJPAQuery." + name + " 필드가 없습니다. QueryDSL 버전을 확인하세요.");
+        ReflectionUtils.makeAccessible(field);
+        return field;
+    }
+
+    private Memo current() {
+        return (Memo) TransactionSynchronizationManager.getResource(this);
+    }
+
+    private Memo currentOrBind() {
+        Memo memo = current();
+        if (memo != null) {
+            return memo;
+        }
+        Memo bound = new Memo();
+        TransactionSynchronizationManager.bindResource(this, bound);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void suspend() {
+                TransactionSynchronizationManager.unbindResource(QueryMemo.this);
+            }
+
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(QueryMemo.this, bound);
+            }
+
+            @Override
+            public void afterCompletion(final int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(QueryMemo.this);
+                avoided.record(bound.hits);
+            }
+        });
+        return bound;
+    }
+
+    /**
+     * 쿼리에 등장하는 엔티티 타입 (from, join, where, select, 서브쿼리 ...)
+     */
+    static Set<Class<?>> entityTypes(final QueryMetadata metadata) {
+        Set<Class<?>> types = new HashSet<>();
+        EntityTypeCollector.collect(metadata, types);
+        return types;
+    }
+
+    private static final class Memo {
+
+        private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+        private long hits;
+    }
+
+    private static final class Entry {
+
+        private final Object result;
+
+        private final Set<Class<?>> entityTypes;
+
+        private Entry(final Object result, final Set<Class<?>> entityTypes) {
+            this.result = result;
+            this.entityTypes = entityTypes;
+        }
+    }
+
+    private static final class EntityTypeCollector implements Visitor<Void, Set<Class<?>>> {
+
+        private static final EntityTypeCollector INSTANCE = new EntityTypeCollector();
+
+        private static void collect(final QueryMetadata metadata, final Set<Class<?>> types) {
+            for (JoinExpression join : metadata.getJoins()) {
+                visit(join.getTarget(), types);
+                visit(join.getCondition(), types);
+            }
+            visit(metadata.getProjection(), types);
+            visit(metadata.getWhere(), types);
+            visit(metadata.getHaving(), types);
+            metadata.getGroupBy().forEach(expression -> visit(expression, types));
+            for (OrderSpecifier<?> order : metadata.getOrderBy()) {
+                visit(order.getTarget(), types);
+            }
+        }
+
+        private static void visit(final Expression<?> expression, final Set<Class<?>> types) {
+            if (expression != null) {
+                expression.accept(INSTANCE, types);
+            }
+        }
+
+        @Override
+        public Void visit(final Constant<?> expr, final Set<Class<?>> types) {
+            return null;
+        }
+
+        @Override
+        public Void visit(final FactoryExpression<?> expr, final Set<Class<?>> types) {
+            expr.getArgs().forEach(arg -> visit(arg, types));
+            return null;
+        }
+
+        @Override
+        public Void visit(final Operation<?> expr, final Set<Class<?>> types) {
+            expr.getArgs().forEach(arg -> visit(arg, types));
+            return null;
+        }
+
+        @Override
+        public Void visit(final ParamExpression<?> expr, final Set<Class<?>> types) {
+            return null;
+        }
+
+        @Override
+        public Void visit(final Path<?> expr, final Set<Class<?>> types) {
+            Class<?> type = expr instanceof CollectionExpression
+                    ? ((CollectionExpression<?, ?>) expr).getParameter(0)
+                    : expr.getType();
+            if (type.isAnnotationPresent(Entity.class)) {
+                types.add(type);
+            }
+            Path<?> parent = expr.getMetadata().getParent();
+            if (parent != null) {
+                parent.accept(this, types);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(final SubQueryExpression<?> expr, final Set<Class<?>> types) {
+            collect(expr.getMetadata(), types);
+            return null;
+        }
+
+        @Override
+        public Void visit(final TemplateExpression<?> expr, final Set<Class<?>> types) {
+            for (Object arg : expr.getArgs()) {
+                if (arg instanceof Expression) {
+                    visit((Expression<?>) arg, types);
+                }
+            }
+            return null;
+        }
+    }
+}
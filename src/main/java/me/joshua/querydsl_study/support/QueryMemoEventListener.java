@@ -0,0 +1,83 @@
+package me.joshua.querydsl_study.support;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.ClearEvent;
+import org.hibernate.event.spi.ClearEventListener;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.EvictEvent;
+import org.hibernate.event.spi.EvictEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxyHelper;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * 현재 트랜잭션에서 flush 된 insert / update / delete 와 clear / detach 를 QueryMemo 에 알린다.
+ *
+ * post-insert / update / delete 이벤트는 flush 하는 스레드 (= 트랜잭션 스레드) 에서 발생하므로
+ * 그 트랜잭션의 메모만 지운다.
+ */
+@Component
+public class QueryMemoEventListener implements PostInsertEventListener, PostUpdateEventListener,
+        PostDeleteEventListener, ClearEventListener, EvictEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final QueryMemo queryMemo;
+
+    public QueryMemoEventListener(final EntityManagerFactory entityManagerFactory, final QueryMemo queryMemo) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.queryMemo = queryMemo;
+    }
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry listeners = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        listeners.appendListeners(EventType.POST_INSERT, this);
+        listeners.appendListeners(EventType.POST_UPDATE, this);
+        listeners.appendListeners(EventType.POST_DELETE, this);
+        listeners.appendListeners(EventType.CLEAR, this);
+        listeners.appendListeners(EventType.EVICT, this);
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(final EntityPersister persister) {
+        return false;
+    }
+
+    @Override
+    public void onPostInsert(final PostInsertEvent event) {
+        queryMemo.invalidate(event.getPersister().getMappedClass());
+    }
+
+    @Override
+    public void onPostUpdate(final PostUpdateEvent event) {
+        queryMemo.invalidate(event.getPersister().getMappedClass());
+    }
+
+    @Override
+    public void onPostDelete(final PostDeleteEvent event) {
+        queryMemo.invalidate(event.getPersister().getMappedClass());
+    }
+
+    @Override
+    public void onClear(final ClearEvent event) {
+        queryMemo.invalidateAll();
+    }
+
+    @Override
+    public void onEvict(final EvictEvent event) {
+        queryMemo.invalidate(HibernateProxyHelper.getClassWithoutInitializingProxy(event.getObject()));
+    }
+}
@@ -0,0 +1,27 @@
+package me.joshua.querydsl_study.support;
+
+import me.joshua.querydsl_study.support.QueryPlanValidator.QueryPlanReport;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * GET /actuator/queryplans : 등록된 쿼리의 실행 계획과 전체 스캔 여부
+ */
+@Component
+@Endpoint (id = "queryplans")
+public class QueryPlanEndpoint {
+
+    private final QueryPlanValidator queryPlanValidator;
+
+    public QueryPlanEndpoint(final QueryPlanValidator queryPlanValidator) {
+        this.queryPlanValidator = queryPlanValidator;
+    }
+
+    @ReadOperation
+    public List<QueryPlanReport> queryPlans() {
+        return queryPlanValidator.validateAll();
+    }
+}
@@ -0,0 +1,29 @@
+package me.joshua.querydsl_study.support;
+
+import com.querydsl.jpa.JPQLQuery;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 실행 계획을 검사할 자주 쓰는 쿼리 목록 (QueryPlanValidator)
+ *
+ * 리포지토리가 실제로 실행하는 쿼리를 대표 값으로 만들어서 등록한다.
+ * 쿼리는 검사할 때마다 새로 만든다. limit / offset 은 붙이지 않는다. (HqlSqlTranslator 제약)
+ */
+@Component
+public class QueryPlanRegistry {
+
+    private final Map<String, Supplier<? extends JPQLQuery<?>>> queries = new LinkedHashMap<>();
+
+    public synchronized void register(final String name, final Supplier<? extends JPQLQuery<?>> query) {
+        queries.put(name, query);
+    }
+
+    public synchronized Map<String, Supplier<? extends JPQLQuery<?>>> getQueries() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(queries));
+    }
+}
@@ -0,0 +1,93 @@
+package me.joshua.querydsl_study.support;
+
+import com.querydsl.jpa.JPQLQuery;
+import lombok.Getter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 등록된 쿼리 (QueryPlanRegistry) 를 SQL 로 바꿔 EXPLAIN 하고, 인덱스 없이 테이블 전체를 읽는 쿼리를 찾는다.
+ *
+ * H2 의 EXPLAIN 은 테이블마다 사용한 인덱스를 주석으로 보여주고, 인덱스가 없으면 "테이블.tableScan" 으로 표시한다.
+ * 테스트 (QueryPlanValidatorTest) 와 /actuator/queryplans 에서 사용한다.
+ */
+@Component
+public class QueryPlanValidator {
+
+    private static final Pattern TABLE_SCAN = Pattern.compile("/\\*\\s*([\\w.]+)\\.tableScan");
+
+    private final QueryPlanRegistry registry;
+
+    private final HqlSqlTranslator hqlSqlTranslator;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public QueryPlanValidator(final QueryPlanRegistry registry,
+                              final HqlSqlTranslator hqlSqlTranslator,
+                              final JdbcTemplate jdbcTemplate) {
+        this.registry = registry;
+        this.hqlSqlTranslator = hqlSqlTranslator;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Transactional(readOnly = true)
+    public List<QueryPlanReport> validateAll() {
+        List<QueryPlanReport> reports = new ArrayList<>();
+        for (Map.Entry<String, Supplier<? extends JPQLQuery<?>>> entry : registry.getQueries().entrySet()) {
+            reports.add(explain(entry.getKey(), entry.getValue().get()));
+        }
+        return reports;
+    }
+
+    @Transactional(readOnly = true)
+    public QueryPlanReport explain(final String name, final JPQLQuery<?> query) {
+        HqlSqlTranslator.Translation translation = hqlSqlTranslator.translate(query);
+        String sql = translation.getSql();
+        String plan = String.join(System.lineSeparator(),
+                jdbcTemplate.queryForList("explain " + sql, String.class, translation.getParameters().toArray()));
+
+        List<String> fullScans = new ArrayList<>();
+        Matcher matcher = TABLE_SCAN.matcher(plan);
+        while (matcher.find()) {
+            fullScans.add(matcher.group(1));
+        }
+        return new QueryPlanReport(name, sql, plan, fullScans);
+    }
+
+    @Getter
+    public static class QueryPlanReport {
+
+        private final String name;
+
+        private final String sql;
+
+        private final String plan;
+
+        /** 인덱스 없이 전체를 읽는 테이블 */
+        private final List<String> fullScans;
+
+        private QueryPlanReport(final String name, final String sql, final String plan, final List<String> fullScans) {
+            this.name = name;
+            this.sql = sql;
+            this.plan = plan;
+            this.fullScans = fullScans;
+        }
+
+        public boolean isFullScan() {
+            return !fullScans.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return name + (isFullScan() ? " : 전체 스캔 " + fullScans : " : OK") + System.lineSeparator() + plan;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package me.joshua.querydsl_study.support;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import org.hibernate.annotations.QueryHints;
+
+import javax.persistence.EntityManager;
+
+/**
+ * 조회한 엔티티를 읽기 전용으로 로딩하는 JPAQueryFactory
+ *
+ * select / selectFrom / from 으로 만든 모든 쿼리에 org.hibernate.readOnly 힌트를 붙인다.
+ * 읽기 전용 엔티티는 dirty checking 용 스냅샷을 만들지 않으므로 (엔티티만큼의 메모리를 더 쓰지 않는다.)
+ * 값을 바꿔도 flush 되지 않는다. update / delete 는 InvalidatingQueryFactory 와 같다.
+ *
+ * @Transactional(readOnly = true) 트랜잭션은 스프링이 세션 자체를 읽기 전용 (setDefaultReadOnly) + FlushMode.MANUAL 로
+ * 열기 때문에 힌트 없이도 같은 효과가 있다. 이 팩토리는 쓰기 트랜잭션 안에서 대량 조회만 읽기 전용으로 하고 싶을 때 쓴다.
+ * (쓰기 트랜잭션에서는 다른 엔티티의 변경을 반영해야 하므로 조회 전 자동 flush 는 그대로 일어난다.)
+ */
+public class ReadOnlyQueryFactory extends InvalidatingQueryFactory {
+
+    private final EntityManager em;
+
+    public ReadOnlyQueryFactory(final EntityManager em, final QueryMemo queryMemo) {
+        super(em, queryMemo);
+        this.em = em;
+    }
+
+    @Override
+    public JPAQuery<?> query() {
+        return new JPAQuery<Void>(em).setHint(QueryHints.READ_ONLY, true);
+    }
+}
@@ -0,0 +1,265 @@
+package me.joshua.querydsl_study.support;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 읽기 전용 트랜잭션은 replica 로, 나머지는 primary 로 보내는 DataSource
+ *
+ * 트랜잭션 시작 시점에는 아직 읽기 전용 여부가 정해지지 않았으므로
+ * 반드시 LazyConnectionDataSourceProxy 로 감싸서 첫 쿼리 시점에 커넥션을 고르게 해야 한다.
+ *
+ * 복제 지연 : 한 클라이언트 (DataSourceRouting.currentClient) 의 쓰기가 커밋된 뒤 replicationLag 가 지나기 전에는
+ * 그 클라이언트의 읽기만 primary 로 보낸다. (자기가 방금 쓴 데이터를 replica 에서 못 읽는 문제를 막는다. 0 이면 사용하지 않는다.)
+ * 다른 클라이언트의 읽기는 계속 replica 로 간다.
+ *
+ * 쓰기는 primary 커넥션에서 select 가 아닌 문장 (insert, update, delete ...) 을 준비하거나 실행한 경우만 센다.
+ * 읽기 전용이 아닌 트랜잭션이라도 조회만 했다면 세지 않는다.
+ * 복제는 커밋부터 시작되므로 커밋 시점부터 잰다. 롤백된 트랜잭션은 세지 않는다. (트랜잭션 밖의 auto commit 문장은 실행 시점)
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private static final Set<String> PREPARING_METHODS = Set.of("prepareStatement", "prepareCall");
+
+    private final List<String> replicaKeys;
+
+    private final Strategy strategy;
+
+    private final long replicationLagNanos;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    /** 클라이언트 -> 마지막 쓰기 커밋 시각 (System.nanoTime) */
+    private final Map<Object, Long> lastWrites = new ConcurrentHashMap<>();
+
+    private final int maxClients;
+
+    public ReplicaRoutingDataSource(final DataSource primary,
+                                    final List<DataSource> replicas,
+                                    final Strategy strategy,
+                                    final Duration replicationLag) {
+        this(primary, replicas, strategy, replicationLag, 10_000);
+    }
+
+    /**
+     * @param maxClients 복제 지연을 기억하는 클라이언트 수, 넘으면 지연이 지난 기록부터 지운다.
+     */
+    public ReplicaRoutingDataSource(final DataSource primary,
+                                    final List<DataSource> replicas,
+                                    final Strategy strategy,
+                                    final Duration replicationLag,
+                                    final int maxClients) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < replicas.size(); i++) {
+            String key = "replica-" + i;
+            keys.add(key);
+            targets.put(key, replicas.get(i));
+        }
+
+        this.replicaKeys = keys;
+        this.strategy = strategy;
+        this.replicationLagNanos = replicationLag.toNanos();
+        this.maxClients = maxClients;
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        if (replicaKeys.isEmpty() || DataSourceRouting.isPrimaryForced() || withinReplicationLag()) {
+            return PRIMARY;
+        }
+        return strategy == Strategy.LEAST_CONNECTIONS ? leastConnections() : roundRobin();
+    }
+
+    /**
+     * primary 커넥션은 쓰기 문장을 감지하도록 감싼다. (읽기 전용 트랜잭션의 커넥션은 감싸지 않는다.)
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        return trackWrites(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(final String username, final String password) throws SQLException {
+        return trackWrites(super.getConnection(username, password));
+    }
+
+    private Connection trackWrites(final Connection connection) {
+        if (replicationLagNanos <= 0 || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return connection;
+        }
+        return (Connection) Proxy.newProxyInstance(
+                ReplicaRoutingDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (args != null && args.length > 0 && args[0] instanceof String
+                            && PREPARING_METHODS.contains(method.getName())) {
+                        onStatement((String) args[0]);
+                    }
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof Statement && "createStatement".equals(method.getName())) {
+                        return trackWrites((Statement) result, method.getReturnType());
+                    }
+                    return result;
+                });
+    }
+
+    /**
+     * createStatement() 로 만든 Statement 는 SQL 을 실행할 때 넘기므로 execute* / addBatch 를 본다.
+     */
+    private Object trackWrites(final Statement statement, final Class<?> type) {
+        return Proxy.newProxyInstance(
+                ReplicaRoutingDataSource.class.getClassLoader(),
+                new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if (args != null && args.length > 0 && args[0] instanceof String
+                            && (method.getName().startsWith("execute") || "addBatch".equals(method.getName()))) {
+                        onStatement((String) args[0]);
+                    }
+                    return invoke(statement, method, args);
+                });
+    }
+
+    private static Object invoke(final Object target, final Method method, final Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void onStatement(final String sql) {
+        if (!SqlStatements.isSelect(sql)) {
+            recordWriteOnCommit();
+        }
+    }
+
+    /**
+     * 트랜잭션마다 한 번만 등록한다. (this 를 리소스 키로 쓴다.)
+     * 동기화가 없으면 (트랜잭션 매니저 밖에서 직접 커넥션을 얻은 경우) 지금을 쓰기 시점으로 본다.
+     */
+    private void recordWriteOnCommit() {
+        Object client = DataSourceRouting.currentClient();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            markWritten(client);
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, client);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void suspend() {
+                TransactionSynchronizationManager.unbindResource(ReplicaRoutingDataSource.this);
+            }
+
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(ReplicaRoutingDataSource.this, client);
+            }
+
+            @Override
+            public void afterCommit() {
+                markWritten(client);
+            }
+
+            @Override
+            public void afterCompletion(final int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ReplicaRoutingDataSource.this);
+            }
+        });
+    }
+
+    private void markWritten(final Object client) {
+        long now = System.nanoTime();
+        if (lastWrites.size() >= maxClients) {
+            lastWrites.values().removeIf(writtenAt -> now - writtenAt >= replicationLagNanos);
+        }
+        lastWrites.put(client, now);
+    }
+
+    private boolean withinReplicationLag() {
+        if (replicationLagNanos <= 0) {
+            return false;
+        }
+        Object client = DataSourceRouting.currentClient();
+        Long writtenAt = lastWrites.get(client);
+        if (writtenAt == null) {
+            return false;
+        }
+        if (System.nanoTime() - writtenAt < replicationLagNanos) {
+            return true;
+        }
+        lastWrites.remove(client, writtenAt);
+        return false;
+    }
+
+    private String roundRobin() {
+        int index = Math.floorMod(next.getAndIncrement(), replicaKeys.size());
+        return replicaKeys.get(index);
+    }
+
+    /**
+     * 사용 중인 커넥션이 가장 적은 replica, 같으면 round robin 순서
+     * (HikariCP 가 아닌 DataSource 는 사용 중인 커넥션 수를 알 수 없으므로 0 으로 본다.)
+     */
+    private String leastConnections() {
+        Map<Object, DataSource> resolved = getResolvedDataSources();
+        int start = Math.floorMod(next.getAndIncrement(), replicaKeys.size());
+
+        String selected = null;
+        int minActive = Integer.MAX_VALUE;
+        for (int i = 0; i < replicaKeys.size(); i++) {
+            String key = replicaKeys.get((start + i) % replicaKeys.size());
+            int active = activeConnections(resolved.get(key));
+            if (active < minActive) {
+                minActive = active;
+                selected = key;
+            }
+        }
+        return selected;
+    }
+
+    private static int activeConnections(final DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource) {
+            HikariPoolMXBean pool = ((HikariDataSource) dataSource).getHikariPoolMXBean();
+            return pool == null ? 0 : pool.getActiveConnections();
+        }
+        return 0;
+    }
+
+    public enum Strategy {
+        ROUND_ROBIN,
+        LEAST_CONNECTIONS
+    }
+}
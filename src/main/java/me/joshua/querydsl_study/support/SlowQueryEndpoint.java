@@ -0,0 +1,37 @@
+package me.joshua.querydsl_study.support;
+
+import me.joshua.querydsl_study.support.SlowQueryLog.QueryLatency;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * GET /actuator/slowqueries?top=10 : p99 가 큰 쿼리 지문 topN
+ * DELETE /actuator/slowqueries : 히스토그램 초기화
+ */
+@Component
+@Endpoint (id = "slowqueries")
+public class SlowQueryEndpoint {
+
+    private static final int DEFAULT_TOP = 10;
+
+    private final SlowQueryLog slowQueryLog;
+
+    public SlowQueryEndpoint(final SlowQueryLog slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @ReadOperation
+    public List<QueryLatency> slowQueries(@Nullable final Integer top) {
+        return slowQueryLog.top(top != null ? top : DEFAULT_TOP);
+    }
+
+    @DeleteOperation
+    public void reset() {
+        slowQueryLog.reset();
+    }
+}
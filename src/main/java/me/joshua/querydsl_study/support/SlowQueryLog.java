@@ -0,0 +1,147 @@
+package me.joshua.querydsl_study.support;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 느린 쿼리 기록기
+ *
+ * p6spy 가 잰 실행 시간을 SQL 지문 (SqlStatements.fingerprint) 별 HDR 히스토그램에 마이크로초 단위로 쌓고,
+ * threshold 이상 걸린 쿼리는 지문과 함께 경고 로그를 남긴다. 바인딩 값은 지문에도 로그에도 남지 않는다.
+ *
+ * 기준 미만인 쿼리는 (SQL 문자열 -> 지문) 캐시 조회와 히스토그램 기록만 하므로 로그 비용이 없다.
+ * 지문 수는 maxFingerprints 까지만 기록한다. (동적으로 만든 SQL 이 메모리를 채우지 않도록)
+ * 결과는 /actuator/slowqueries 로 본다.
+ */
+@Slf4j
+@Component
+public class SlowQueryLog extends JdbcEventListener {
+
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private final long thresholdNanos;
+
+    private final int maxFingerprints;
+
+    private final Map<String, String> fingerprints = new ConcurrentHashMap<>();
+
+    private final Map<String, QueryLatency> latencies = new ConcurrentHashMap<>();
+
+    public SlowQueryLog(@Value("${querydsl-study.slow-query.threshold:200ms}") final Duration threshold,
+                        @Value("${querydsl-study.slow-query.max-fingerprints:1000}") final int maxFingerprints) {
+        this.thresholdNanos = threshold.toNanos();
+        this.maxFingerprints = maxFingerprints;
+    }
+
+    @Override
+    public void onAfterAnyExecute(final StatementInformation statementInformation,
+                                  final long timeElapsedNanos,
+                                  final SQLException e) {
+        String sql = statementInformation.getSql();
+        if (sql == null) {
+            return;
+        }
+        String fingerprint = fingerprint(sql);
+        QueryLatency latency = latencies.get(fingerprint);
+        if (latency == null && latencies.size() < maxFingerprints) {
+            latency = latencies.computeIfAbsent(fingerprint, QueryLatency::new);
+        }
+        boolean slow = timeElapsedNanos >= thresholdNanos;
+        if (latency != null) {
+            latency.record(timeElapsedNanos, slow);
+        }
+        if (slow) {
+            log.warn("느린 쿼리 {}ms : {}", TimeUnit.NANOSECONDS.toMillis(timeElapsedNanos), fingerprint);
+        }
+    }
+
+    /**
+     * 평균이 아니라 p99 가 큰 순서로 topN 개
+     */
+    public List<QueryLatency> top(final int topN) {
+        return latencies.values().stream()
+                .sorted(Comparator.comparingDouble(QueryLatency::getP99Ms).reversed())
+                .limit(topN)
+                .collect(Collectors.toList());
+    }
+
+    public void reset() {
+        latencies.clear();
+    }
+
+    private String fingerprint(final String sql) {
+        String fingerprint = fingerprints.get(sql);
+        if (fingerprint == null) {
+            fingerprint = SqlStatements.fingerprint(sql);
+            if (fingerprints.size() < maxFingerprints * 4) {
+                fingerprints.put(sql, fingerprint);
+            }
+        }
+        return fingerprint;
+    }
+
+    public static class QueryLatency {
+
+        @Getter
+        private final String fingerprint;
+
+        private final Histogram histogram = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+
+        private final LongAdder slowCount = new LongAdder();
+
+        private QueryLatency(final String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        private void record(final long nanos, final boolean slow) {
+            histogram.recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos)));
+            if (slow) {
+                slowCount.increment();
+            }
+        }
+
+        public long getCount() {
+            return histogram.getTotalCount();
+        }
+
+        public long getSlowCount() {
+            return slowCount.sum();
+        }
+
+        public double getMeanMs() {
+            return histogram.getMean() / 1000;
+        }
+
+        public double getP50Ms() {
+            return histogram.getValueAtPercentile(50) / 1000.0;
+        }
+
+        public double getP95Ms() {
+            return histogram.getValueAtPercentile(95) / 1000.0;
+        }
+
+        public double getP99Ms() {
+            return histogram.getValueAtPercentile(99) / 1000.0;
+        }
+
+        public double getMaxMs() {
+            return histogram.getMaxValue() / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package me.joshua.querydsl_study.support;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * p6spy 리스너들이 공통으로 쓰는 SQL 문자열 도구
+ */
+public final class SqlStatements {
+
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+
+    private SqlStatements() {
+    }
+
+    /**
+     * 값만 다른 SQL 을 하나로 묶는 지문
+     *
+     * 주석을 지우고, 문자열 / 숫자 리터럴을 ? 로 바꾸고 (바인딩 값이 남지 않는다.),
+     * 공백을 하나로 줄이고, 길이가 다른 IN 목록 (?, ?, ...) 을 (?...) 로 합친 뒤 소문자로 바꾼다.
+     */
+    public static String fingerprint(final String sql) {
+        StringBuilder out = new StringBuilder(sql.length());
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+                appendSpace(out);
+            } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? length : end + 1;
+                appendSpace(out);
+            } else if (c == '\'') {
+                i++;
+                while (i < length) {
+                    if (sql.charAt(i) == '\'') {
+                        if (i + 1 < length && sql.charAt(i + 1) == '\'') {
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                i++;
+                out.append('?');
+            } else if (Character.isDigit(c) && !isIdentifierPart(out)) {
+                while (i < length && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                out.append('?');
+            } else if (Character.isWhitespace(c)) {
+                i++;
+                appendSpace(out);
+            } else {
+                out.append(Character.toLowerCase(c));
+                i++;
+            }
+        }
+        return IN_LIST.matcher(out.toString().trim()).replaceAll("(?...)");
+    }
+
+    private static void appendSpace(final StringBuilder out) {
+        if (out.length() > 0 && out.charAt(out.length() - 1) != ' ') {
+            out.append(' ');
+        }
+    }
+
+    private static boolean isIdentifierPart(final StringBuilder out) {
+        if (out.length() == 0) {
+            return false;
+        }
+        char last = out.charAt(out.length() - 1);
+        return Character.isLetterOrDigit(last) || last == '_' || last == '$';
+    }
+
+    /**
+     * 앞쪽 주석 (use_sql_comments 가 붙이는 주석) 을 건너뛴 첫 키워드 (select, insert, update, delete ...)
+     */
+    public static String type(final String sql) {
+        String body = stripLeadingComment(sql);
+        int end = 0;
+        while (end < body.length() && Character.isLetter(body.charAt(end))) {
+            end++;
+        }
+        return end == 0 ? "other" : body.substring(0, end).toLowerCase(Locale.ROOT);
+    }
+
+    public static boolean isSelect(final String sql) {
+        return "select".equals(type(sql));
+    }
+
+    public static String stripLeadingComment(final String sql) {
+        String body = sql.trim();
+        while (body.startsWith("/*")) {
+            int end = body.indexOf("*/");
+            if (end < 0) {
+                return body;
+            }
+            body = body.substring(end + 2).trim();
+        }
+        return body;
+    }
+}
@@ -0,0 +1,312 @@
+package me.joshua.querydsl_study.support;
+
+import com.querydsl.core.JoinExpression;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.support.ReplaceVisitor;
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.ConstantImpl;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.SubQueryExpression;
+import com.querydsl.core.types.SubQueryExpressionImpl;
+import com.querydsl.core.types.TemplateExpression;
+import com.querydsl.core.types.Visitor;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.jpa.impl.JPAQuery;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 바깥 쿼리와 상관없는 (uncorrelated) 서브쿼리를 먼저 한 번만 실행하고 결과를 상수로 바꿔 넣는다.
+ *
+ * select m from Member m where m.age = (select max(ms.age) from Member ms)
+ * -> select max(ms.age) from Member ms 를 먼저 실행 (40)
+ * -> select m from Member m where m.age = 40
+ *
+ * 서브쿼리 안에서 쓰는 모든 경로가 그 서브쿼리(또는 그 안의 서브쿼리)가 선언한 별칭에서 시작하면 uncorrelated 로 본다.
+ * 스칼라 위치 (비교, select 절, case) 는 결과가 숫자 한 건일 때 (max, avg, count ...) 리터럴로 바꾸고,
+ * in / not in 은 결과가 1 ~ 1000 건일 때 파라미터 목록으로 바꾼다.
+ * (스칼라를 파라미터로 넣으면 select 절에서는 쓸 수 없으므로 숫자만 리터럴로 바꾼다.)
+ * 그 외 (exists, 결과가 없거나 null, 상관 서브쿼리) 는 그대로 둔다.
+ * 새 JPAQuery 를 만들어 돌려주므로 원래 쿼리에 준 hint, lock mode 는 다시 지정해야 한다.
+ */
+@Component
+public class SubQueryInliner {
+
+    private static final int MAX_IN_SIZE = 1000;
+
+    private final EntityManager em;
+
+    private final BoundedQueryExecutor boundedQueryExecutor;
+
+    private final TransactionTemplate subQueryTransaction;
+
+    public SubQueryInliner(final EntityManager em,
+                           final BoundedQueryExecutor boundedQueryExecutor,
+                           final PlatformTransactionManager transactionManager) {
+        this.em = em;
+        this.boundedQueryExecutor = boundedQueryExecutor;
+        this.subQueryTransaction = new TransactionTemplate(transactionManager);
+        this.subQueryTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.subQueryTransaction.setReadOnly(true);
+    }
+
+    /**
+     * 서브쿼리를 현재 트랜잭션에서 차례대로 실행한다.
+     */
+    public <T> JPAQuery<T> inline(final JPAQuery<T> query) {
+        QueryMetadata metadata = query.getMetadata();
+        Map<QueryMetadata, List<?>> results = new LinkedHashMap<>();
+        for (QueryMetadata subQuery : collect(metadata)) {
+            results.put(subQuery, evaluate(subQuery, metadata));
+        }
+        return rewrite(metadata, results);
+    }
+
+    /**
+     * 서브쿼리를 각각 별도 커넥션(REQUIRES_NEW 읽기 전용 트랜잭션)에서 동시에 실행한다.
+     * 현재 트랜잭션에서 아직 커밋하지 않은 변경은 보이지 않는다.
+     * BoundedQueryExecutor 에 자리가 없거나 이미 BoundedQueryExecutor 작업 안이면 그 서브쿼리는 현재 스레드에서 실행한다.
+     */
+    public <T> JPAQuery<T> inlineParallel(final JPAQuery<T> query) {
+        QueryMetadata metadata = query.getMetadata();
+        Map<QueryMetadata, CompletableFuture<List<?>>> futures = new LinkedHashMap<>();
+        for (QueryMetadata subQuery : collect(metadata)) {
+            CompletableFuture<List<?>> future = boundedQueryExecutor.submit(
+                    () -> subQueryTransaction.execute(status -> evaluate(subQuery, metadata)));
+            futures.put(subQuery, future.exceptionally(e -> null));
+        }
+
+        Map<QueryMetadata, List<?>> results = new LinkedHashMap<>();
+        futures.forEach((subQuery, future) -> {
+            List<?> result = future.join();
+            results.put(subQuery, result != null ? result : evaluate(subQuery, metadata));
+        });
+        return rewrite(metadata, results);
+    }
+
+    private Collection<QueryMetadata> collect(final QueryMetadata metadata) {
+        Set<QueryMetadata> found = new HashSet<>();
+        new Inliner(found::add).rewrite(metadata);
+        return found;
+    }
+
+    private List<?> evaluate(final QueryMetadata subQuery, final QueryMetadata outer) {
+        QueryMetadata metadata = subQuery.clone();
+        outer.getParams().forEach((param, value) -> setParam(metadata, param, value));
+        return new JPAQuery<>(em, metadata).fetch();
+    }
+
+    @SuppressWarnings ("unchecked")
+    private static <P> void setParam(final QueryMetadata metadata, final ParamExpression<P> param, final Object value) {
+        metadata.setParam(param, (P) value);
+    }
+
+    private <T> JPAQuery<T> rewrite(final QueryMetadata metadata, final Map<QueryMetadata, List<?>> results) {
+        QueryMetadata rewritten = new Inliner(results).rewrite(metadata);
+        return new JPAQuery<>(em, rewritten.clone());
+    }
+
+    private static Expression<?> scalar(final Class<?> type, final List<?> result) {
+        if (result.size() != 1) {
+            return null;
+        }
+        String literal = numberLiteral(result.get(0));
+        return literal == null ? null : Expressions.template(type, literal);
+    }
+
+    private static Expression<?> list(final List<?> result) {
+        if (result.isEmpty() || result.size() > MAX_IN_SIZE || result.contains(null)) {
+            return null;
+        }
+        return ConstantImpl.create(new ArrayList<>(result));
+    }
+
+    private static String numberLiteral(final Object value) {
+        if (value instanceof Integer || value instanceof Long || value instanceof Short
+                || value instanceof Byte || value instanceof BigInteger) {
+            return value.toString();
+        }
+        if (value instanceof Double || value instanceof Float) {
+            double number = ((Number) value).doubleValue();
+            return Double.isFinite(number) ? BigDecimal.valueOf(number).toPlainString() : null;
+        }
+        if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).toPlainString();
+        }
+        return null;
+    }
+
+    /**
+     * 서브쿼리에서 쓰였지만 그 서브쿼리가 선언하지 않은 별칭 (= 바깥 쿼리 참조)
+     */
+    private static Set<Path<?>> freeRoots(final QueryMetadata metadata) {
+        Set<Path<?>> used = new HashSet<>();
+        Set<Path<?>> declared = new HashSet<>();
+        RootCollector collector = new RootCollector();
+
+        for (JoinExpression join : metadata.getJoins()) {
+            Expression<?> target = join.getTarget();
+            if (target instanceof Operation && ((Operation<?>) target).getOperator() == Ops.ALIAS) {
+                Operation<?> alias = (Operation<?>) target;
+                alias.getArg(0).accept(collector, used);
+                declared.add(((Path<?>) alias.getArg(1)).getRoot());
+            } else if (target instanceof Path) {
+                declared.add(((Path<?>) target).getRoot());
+            } else {
+                target.accept(collector, used);
+            }
+            if (join.getCondition() != null) {
+                join.getCondition().accept(collector, used);
+            }
+        }
+        if (metadata.getProjection() != null) {
+            metadata.getProjection().accept(collector, used);
+        }
+        if (metadata.getWhere() != null) {
+            metadata.getWhere().accept(collector, used);
+        }
+        metadata.getGroupBy().forEach(expression -> expression.accept(collector, used));
+        if (metadata.getHaving() != null) {
+            metadata.getHaving().accept(collector, used);
+        }
+        metadata.getOrderBy().forEach(order -> order.getTarget().accept(collector, used));
+
+        used.removeAll(declared);
+        return used;
+    }
+
+    private static boolean isUncorrelated(final SubQueryExpression<?> subQuery) {
+        return freeRoots(subQuery.getMetadata()).isEmpty();
+    }
+
+    private static class RootCollector implements Visitor<Void, Set<Path<?>>> {
+
+        @Override
+        public Void visit(final Constant<?> expr, final Set<Path<?>> roots) {
+            return null;
+        }
+
+        @Override
+        public Void visit(final FactoryExpression<?> expr, final Set<Path<?>> roots) {
+            expr.getArgs().forEach(arg -> arg.accept(this, roots));
+            return null;
+        }
+
+        @Override
+        public Void visit(final Operation<?> expr, final Set<Path<?>> roots) {
+            expr.getArgs().forEach(arg -> arg.accept(this, roots));
+            return null;
+        }
+
+        @Override
+        public Void visit(final ParamExpression<?> expr, final Set<Path<?>> roots) {
+            return null;
+        }
+
+        @Override
+        public Void visit(final Path<?> expr, final Set<Path<?>> roots) {
+            roots.add(expr.getRoot());
+            return null;
+        }
+
+        @Override
+        public Void visit(final SubQueryExpression<?> expr, final Set<Path<?>> roots) {
+            roots.addAll(freeRoots(expr.getMetadata()));
+            return null;
+        }
+
+        @Override
+        public Void visit(final TemplateExpression<?> expr, final Set<Path<?>> roots) {
+            for (Object arg : expr.getArgs()) {
+                if (arg instanceof Expression) {
+                    ((Expression<?>) arg).accept(this, roots);
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 결과 맵이 있으면 uncorrelated 서브쿼리를 상수로 바꾸고,
+     * 없으면 (수집 단계) 바꿀 수 있는 서브쿼리를 찾아서 넘겨주기만 한다.
+     */
+    private static class Inliner extends ReplaceVisitor<Void> {
+
+        private final Map<QueryMetadata, List<?>> results;
+
+        private final Consumer<QueryMetadata> collector;
+
+        Inliner(final Map<QueryMetadata, List<?>> results) {
+            this.results = results;
+            this.collector = metadata -> { };
+        }
+
+        Inliner(final Consumer<QueryMetadata> collector) {
+            this.results = null;
+            this.collector = collector;
+        }
+
+        QueryMetadata rewrite(final QueryMetadata metadata) {
+            Expression<?> root = super.visit(new SubQueryExpressionImpl<>(Object.class, metadata), null);
+            return ((SubQueryExpression<?>) root).getMetadata();
+        }
+
+        @Override
+        public Expression<?> visit(final Operation<?> expr, final Void context) {
+            if (expr.getOperator() == Ops.EXISTS) {
+                return expr;
+            }
+            if ((expr.getOperator() == Ops.IN || expr.getOperator() == Ops.NOT_IN)
+                    && expr.getArg(1) instanceof SubQueryExpression) {
+                SubQueryExpression<?> subQuery = (SubQueryExpression<?>) expr.getArg(1);
+                Expression<?> left = expr.getArg(0).accept(this, context);
+                Expression<?> right = replace(subQuery, SubQueryInliner::list);
+                return ExpressionUtils.predicate(expr.getOperator(), left, right);
+            }
+            return super.visit(expr, context);
+        }
+
+        @Override
+        public Expression<?> visit(final SubQueryExpression<?> expr, final Void context) {
+            return replace(expr, result -> scalar(expr.getType(), result));
+        }
+
+        private Expression<?> replace(final SubQueryExpression<?> subQuery,
+                                      final Function<List<?>, Expression<?>> toConstant) {
+            if (isUncorrelated(subQuery)) {
+                if (results == null) {
+                    collector.accept(subQuery.getMetadata());
+                    return subQuery;
+                }
+                List<?> result = results.get(subQuery.getMetadata());
+                Expression<?> constant = result == null ? null : toConstant.apply(result);
+                if (constant != null) {
+                    return constant;
+                }
+            }
+            return super.visit(subQuery, null);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package me.joshua.querydsl_study.support;
+
+import lombok.Getter;
+
+/**
+ * 팀별 회원 나이 통계 (TeamStatsRegistry 가 유지한다.)
+ */
+@Getter
+public class TeamStats {
+
+    private final Long teamId;
+
+    private final String teamName;
+
+    private final long count;
+
+    private final long sum;
+
+    private final int minAge;
+
+    private final int maxAge;
+
+    public TeamStats(final Long teamId, final String teamName,
+                     final long count, final long sum, final int minAge, final int maxAge) {
+        this.teamId = teamId;
+        this.teamName = teamName;
+        this.count = count;
+        this.sum = sum;
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+    }
+
+    public double getAverageAge() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+}
@@ -0,0 +1,100 @@
+package me.joshua.querydsl_study.support;
+
+import me.joshua.querydsl_study.entity.Member;
+import me.joshua.querydsl_study.entity.Team;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * flush 된 Member / Team 변경에서 통계가 바뀌는 팀 id 를 모아 TeamStatsRegistry 에 알린다.
+ * 실제 집계는 트랜잭션이 커밋된 뒤에 한다.
+ *
+ * 회원이 팀을 옮기면 이전 팀과 새 팀을 모두 알린다.
+ * 이전 팀은 로딩 시점 스냅샷 (event.getOldState()) 에서 읽는데, Member 는 @Version 이 있으므로
+ * 다른 트랜잭션이 먼저 바꿨다면 이 수정은 실패하고 스냅샷은 항상 커밋된 값과 같다.
+ */
+@Component
+public class TeamStatsEventListener implements PostInsertEventListener,
+        PostUpdateEventListener, PostDeleteEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final TeamStatsRegistry registry;
+
+    public TeamStatsEventListener(final EntityManagerFactory entityManagerFactory,
+                                  final TeamStatsRegistry registry) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.registry = registry;
+    }
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry listeners = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        listeners.appendListeners(EventType.POST_INSERT, this);
+        listeners.appendListeners(EventType.POST_UPDATE, this);
+        listeners.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(final EntityPersister persister) {
+        return false;
+    }
+
+    @Override
+    public void onPostInsert(final PostInsertEvent event) {
+        if (event.getEntity() instanceof Member) {
+            registry.changed(teamId(event.getState(), event.getPersister()));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(final PostUpdateEvent event) {
+        if (event.getEntity() instanceof Member) {
+            Object[] oldState = event.getOldState();
+            if (oldState == null) {
+                // 준영속 엔티티를 select 없이 update 하면 이전 팀을 알 수 없다.
+                registry.invalidateAfterCommit();
+            } else {
+                registry.changed(teamId(oldState, event.getPersister()));
+            }
+            registry.changed(teamId(event.getState(), event.getPersister()));
+        } else if (event.getEntity() instanceof Team) {
+            registry.changed((Long) event.getId());
+        }
+    }
+
+    @Override
+    public void onPostDelete(final PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member) {
+            registry.changed(teamId(event.getDeletedState(), event.getPersister()));
+        } else if (event.getEntity() instanceof Team) {
+            registry.changed((Long) event.getId());
+        }
+    }
+
+    private static Long teamId(final Object[] state, final EntityPersister persister) {
+        Object value = state[persister.getEntityMetamodel().getPropertyIndex("team")];
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof HibernateProxy) {
+            return (Long) ((HibernateProxy) value).getHibernateLazyInitializer().getIdentifier();
+        }
+        return ((Team) value).getId();
+    }
+}
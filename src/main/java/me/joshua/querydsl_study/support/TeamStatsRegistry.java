@@ -0,0 +1,363 @@
+package me.joshua.querydsl_study.support;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static me.joshua.querydsl_study.entity.QMember.member;
+import static me.joshua.querydsl_study.entity.QTeam.team;
+
+/**
+ * 팀별 회원 나이 통계 (count / sum / min / max) 를 메모리에 유지한다.
+ *
+ * select team.name, avg(member.age) ... group by team.name 은 매번 회원 전체를 읽지만
+ * 여기서는 팀 수만큼만 읽는다.
+ *
+ * - 처음 조회할 때 group by 쿼리 한 번으로 전체를 채운다. (별도 읽기 전용 트랜잭션)
+ * - 회원 / 팀을 바꾼 트랜잭션이 커밋되면 그 트랜잭션이 건드린 팀만 DB 에서 다시 집계한다.
+ *   (TeamStatsEventListener 가 flush 시점에 팀 id 를 모은다.)
+ *   메모리에서 +1 / -1 하지 않으므로 같은 변경이 두 번 반영되거나 빠지지 않는다.
+ *   다시 집계는 별도 스레드 하나에서 실행한다. 쓰는 스레드는 커밋 직후 커넥션을 하나 더 잡지 않고,
+ *   집계가 실패해도 (커넥션 대기 시간 초과 등) 이미 커밋된 쓰기가 실패로 보이지 않는다. (실패하면 무효화한다.)
+ *   밀린 팀은 모아서 한 번에 집계하고, 그 사이에는 잠깐 이전 값이 보인다.
+ * - JPQL 벌크 연산은 이벤트가 발생하지 않으므로 invalidateAfterCommit() 을 호출해야 한다.
+ *   무효화되면 다음 조회 때 전체를 다시 채운다.
+ *
+ * 집계 쿼리는 시작 순서대로 번호 (sequence) 를 받고, 팀마다 더 늦게 시작한 쿼리의 결과만 남긴다.
+ * 늦게 시작한 쿼리는 그 전에 커밋된 변경을 모두 보므로 결과가 늦게 도착해도 최신 값이 덮이지 않는다.
+ * 팀 id 를 정확히 모으려면 변경 전 팀이 DB 값과 같아야 하므로 Member 는 @Version 으로 낡은 수정을 막는다.
+ */
+@Slf4j
+@Component
+public class TeamStatsRegistry implements DisposableBean {
+
+    private static final int IN_CHUNK_SIZE = 1000;
+
+    private final JPAQueryFactory queryFactory;
+
+    private final TransactionTemplate loadTransaction;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final Object loadLock = new Object();
+
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "team-stats-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 커밋됐지만 아직 다시 집계하지 않은 팀 (this 로 동기화한다.)
+     */
+    private final Set<Long> pendingTeams = new HashSet<>();
+
+    private boolean refreshScheduled;
+
+    /**
+     * 팀 id -> 통계 (this 로 동기화한다.) 회원이 없어진 팀은 count 0 으로 남는다.
+     */
+    private final Map<Long, Accumulator> teams = new HashMap<>();
+
+    private boolean loaded;
+
+    /**
+     * 한 번이라도 전체를 채우기 시작했는지. 그 전에는 커밋된 변경을 다시 집계할 필요가 없다.
+     */
+    private boolean loadStarted;
+
+    private long invalidations;
+
+    public TeamStatsRegistry(final JPAQueryFactory queryFactory,
+                             final PlatformTransactionManager transactionManager) {
+        this.queryFactory = queryFactory;
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+        this.loadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.loadTransaction.setReadOnly(true);
+    }
+
+    /**
+     * 회원이 있는 팀의 통계, 팀 이름 순
+     */
+    public List<TeamStats> findAll() {
+        return read(loadedTeams -> {
+            List<TeamStats> result = new ArrayList<>(loadedTeams.size());
+            loadedTeams.forEach((teamId, accumulator) -> {
+                if (accumulator.count > 0) {
+                    result.add(accumulator.toStats(teamId));
+                }
+            });
+            result.sort(Comparator.comparing(TeamStats::getTeamName, Comparator.nullsLast(Comparator.naturalOrder())));
+            return result;
+        });
+    }
+
+    /**
+     * @return 회원이 없는 팀이면 null
+     */
+    public TeamStats find(final Long teamId) {
+        return read(loadedTeams -> {
+            Accumulator accumulator = loadedTeams.get(teamId);
+            return accumulator == null || accumulator.count == 0 ? null : accumulator.toStats(teamId);
+        });
+    }
+
+    public synchronized void invalidate() {
+        invalidations++;
+        loaded = false;
+    }
+
+    /**
+     * 벌크 연산 후에 호출한다.
+     * 트랜잭션 안이면 커밋된 뒤에 무효화한다. (커밋 전에 다시 채우면 벌크 연산 이전 값이 들어간다.)
+     */
+    public void invalidateAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate();
+            }
+        });
+    }
+
+    /**
+     * 현재 트랜잭션이 teamId 팀의 회원을 바꿨다. 커밋되면 그 팀을 다시 집계한다. (롤백되면 아무것도 하지 않는다.)
+     */
+    @SuppressWarnings("unchecked")
+    void changed(final Long teamId) {
+        if (teamId == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refreshLater(Set.of(teamId));
+            return;
+        }
+        Set<Long> dirty = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (dirty == null) {
+            dirty = bindDirtyTeams();
+        }
+        dirty.add(teamId);
+    }
+
+    /**
+     * 커밋된 변경이 있는 팀을 refresher 스레드에서 다시 집계한다.
+     * 이미 예약된 집계가 시작 전이면 그 집계에 합친다.
+     */
+    void refreshLater(final Collection<Long> teamIds) {
+        synchronized (this) {
+            if (!loadStarted) {
+                return;
+            }
+            pendingTeams.addAll(teamIds);
+            if (refreshScheduled) {
+                return;
+            }
+            refreshScheduled = true;
+        }
+        try {
+            refresher.execute(this::refreshPending);
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                pendingTeams.clear();
+                refreshScheduled = false;
+            }
+            invalidate();
+        }
+    }
+
+    /**
+     * 지금까지 예약된 집계가 끝날 때까지 기다린다. (테스트용)
+     */
+    void awaitRefresh() throws InterruptedException, ExecutionException {
+        refresher.submit(() -> { }).get();
+    }
+
+    private void refreshPending() {
+        Set<Long> teamIds;
+        synchronized (this) {
+            teamIds = new HashSet<>(pendingTeams);
+            pendingTeams.clear();
+            refreshScheduled = false;
+        }
+        try {
+            refresh(teamIds);
+        } catch (RuntimeException e) {
+            log.warn("팀 통계를 다시 집계하지 못해서 무효화합니다. teams = {}", teamIds, e);
+            invalidate();
+        }
+    }
+
+    /**
+     * 커밋된 변경이 있는 팀만 다시 집계한다.
+     */
+    private void refresh(final Collection<Long> teamIds) {
+        synchronized (this) {
+            if (!loadStarted) {
+                return;
+            }
+        }
+        List<Long> ids = new ArrayList<>(teamIds);
+        for (int from = 0; from < ids.size(); from += IN_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + IN_CHUNK_SIZE, ids.size()));
+            long querySequence = sequence.incrementAndGet();
+            Map<Long, Accumulator> fresh = query(team.id.in(chunk));
+            synchronized (this) {
+                for (Long teamId : chunk) {
+                    apply(teamId, fresh.getOrDefault(teamId, new Accumulator()), querySequence);
+                }
+            }
+        }
+    }
+
+    private Set<Long> bindDirtyTeams() {
+        Set<Long> bound = new HashSet<>();
+        TransactionSynchronizationManager.bindResource(this, bound);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void suspend() {
+                TransactionSynchronizationManager.unbindResource(TeamStatsRegistry.this);
+            }
+
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(TeamStatsRegistry.this, bound);
+            }
+
+            @Override
+            public void afterCommit() {
+                refreshLater(bound);
+            }
+
+            @Override
+            public void afterCompletion(final int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(TeamStatsRegistry.this);
+            }
+        });
+        return bound;
+    }
+
+    private <R> R read(final Function<Map<Long, Accumulator>, R> reader) {
+        while (true) {
+            synchronized (this) {
+                if (loaded) {
+                    return reader.apply(teams);
+                }
+            }
+            load();
+        }
+    }
+
+    /**
+     * 전체를 다시 집계한다. 한 번에 하나만 실행한다.
+     * 채우는 동안 무효화되었으면 다음 조회 때 다시 채운다.
+     */
+    private void load() {
+        synchronized (loadLock) {
+            long seenInvalidations;
+            synchronized (this) {
+                if (loaded) {
+                    return;
+                }
+                loadStarted = true;
+                seenInvalidations = invalidations;
+            }
+
+            long querySequence = sequence.incrementAndGet();
+            Map<Long, Accumulator> fresh = query(null);
+            synchronized (this) {
+                for (Long teamId : new ArrayList<>(teams.keySet())) {
+                    if (!fresh.containsKey(teamId)) {
+                        apply(teamId, new Accumulator(), querySequence);
+                    }
+                }
+                fresh.forEach((teamId, accumulator) -> apply(teamId, accumulator, querySequence));
+                loaded = invalidations == seenInvalidations;
+            }
+        }
+    }
+
+    /**
+     * 더 늦게 시작한 쿼리의 결과가 이미 있으면 버린다.
+     */
+    private void apply(final Long teamId, final Accumulator fresh, final long querySequence) {
+        Accumulator current = teams.get(teamId);
+        if (current == null || current.sequence < querySequence) {
+            fresh.sequence = querySequence;
+            teams.put(teamId, fresh);
+        }
+    }
+
+    private Map<Long, Accumulator> query(final Predicate condition) {
+        List<Tuple> rows = loadTransaction.execute(status -> queryFactory
+                .select(team.id, team.name, member.count(), member.age.sum(), member.age.min(), member.age.max())
+                .from(member)
+                .join(member.team, team)
+                .where(condition)
+                .groupBy(team.id, team.name)
+                .fetch());
+
+        Map<Long, Accumulator> fresh = new HashMap<>();
+        for (Tuple row : rows) {
+            Accumulator accumulator = new Accumulator();
+            accumulator.name = row.get(team.name);
+            accumulator.count = row.get(member.count());
+            // sum(int) 은 하이버네이트가 Long 으로 돌려준다.
+            accumulator.sum = row.get(3, Number.class).longValue();
+            accumulator.minAge = row.get(member.age.min());
+            accumulator.maxAge = row.get(member.age.max());
+            fresh.put(row.get(team.id), accumulator);
+        }
+        return fresh;
+    }
+
+    @Override
+    public void destroy() {
+        refresher.shutdownNow();
+    }
+
+    private static final class Accumulator {
+
+        private long sequence;
+
+        private String name;
+
+        private long count;
+
+        private long sum;
+
+        private int minAge;
+
+        private int maxAge;
+
+        private TeamStats toStats(final Long teamId) {
+            return new TeamStats(teamId, name, count, sum, minAge, maxAge);
+        }
+    }
+}
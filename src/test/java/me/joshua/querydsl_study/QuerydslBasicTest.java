@@ -10,6 +10,8 @@ import com.querydsl.jpa.JPAExpressions;
 import com.querydsl.jpa.JPQLQueryFactory;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import me.joshua.querydsl_study.dto.MemberDto;
+import me.joshua.querydsl_study.dto.QMemberDto;
+import me.joshua.querydsl_study.dto.QUserDto;
 import me.joshua.querydsl_study.dto.UserDto;
 import me.joshua.querydsl_study.entity.Member;
 import me.joshua.querydsl_study.entity.QMember;
@@ -750,27 +752,34 @@ public class QuerydslBasicTest {
             System.out.println("memberDto = " + userDto);
         }
     }
-}
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
 
+    /**
+     * @QueryProjection
+     * DTO 생성자에 붙이면 compileQuerydsl 이 Q 타입을 만들어준다.
+     * 장점 : 컴파일 시점에 타입 체크, 행마다 setter / 필드를 찾지 않는다.
+     * 단점 : DTO 가 QueryDSL 에 의존하게 된다.
+     */
+    @Test
+    @DisplayName("DTO Projection 반환 - QueryDSL - @QueryProjection")
+    public void findDtoByQueryProjection () {
+        List<MemberDto> result = queryFactory
+                .select(new QMemberDto(member.username, member.age))
+                .from(member)
+                .fetch();
 
+        assertThat(result).extracting("username")
+                .containsExactly("member1", "member2", "member3", "member4");
+    }
 
+    @Test
+    @DisplayName("DTO Projection 반환 - QueryDSL - @QueryProjection, 필드 타입이 다른 경우")
+    public void findUserDtoByQueryProjection () {
+        List<UserDto> result = queryFactory
+                .select(new QUserDto(member.username, member.age.stringValue()))
+                .from(member)
+                .where(member.username.eq("member1"))
+                .fetch();
 
+        assertThat(result).extracting("age").containsExactly("10");
+    }
+}
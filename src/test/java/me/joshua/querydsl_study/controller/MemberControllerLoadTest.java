@@ -0,0 +1,184 @@
+package me.joshua.querydsl_study.controller;
+
+import me.joshua.querydsl_study.dto.MemberDto;
+import me.joshua.querydsl_study.service.MemberBulkMutationService;
+import me.joshua.querydsl_study.service.MemberBulkService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static me.joshua.querydsl_study.entity.QMember.member;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 블로킹 API 와 비동기 API 의 처리량 비교 (./gradlew loadTest, 기본 test 에서는 제외)
+ *
+ * 톰캣 스레드를 적게 잡아서 요청 스레드가 JDBC 호출을 기다리는 비용이 드러나게 한다.
+ * 결과는 표준 출력으로 남기고, 503 (동시 조회 수 초과) 외의 실패가 없는지만 확인한다.
+ */
+@Tag ("load")
+@SpringBootTest (
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "server.tomcat.threads.max=16",
+                "querydsl-study.async.queue-capacity=" + MemberControllerLoadTest.CLIENTS,
+                "querydsl-study.n-plus-one.mode=off"
+        })
+class MemberControllerLoadTest {
+
+    static final int MEMBER_COUNT = 10_000;
+    static final int CLIENTS = 64;
+    static final Duration WARM_UP = Duration.ofSeconds(3);
+    static final Duration MEASURE = Duration.ofSeconds(10);
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    MemberBulkService memberBulkService;
+
+    @Autowired
+    MemberBulkMutationService memberBulkMutationService;
+
+    ExecutorService clientExecutor;
+
+    HttpClient client;
+
+    @BeforeEach
+    public void before () {
+        clientExecutor = Executors.newFixedThreadPool(CLIENTS);
+        client = HttpClient.newBuilder()
+                .executor(clientExecutor)
+                .build();
+
+        List<MemberDto> members = IntStream.range(0, MEMBER_COUNT)
+                .mapToObj(i -> new MemberDto("load-" + i, i % 100))
+                .collect(Collectors.toList());
+        memberBulkService.saveMembers(members, null);
+    }
+
+    @AfterEach
+    public void after () {
+        clientExecutor.shutdownNow();
+        memberBulkMutationService.delete(member.username.startsWith("load-"));
+    }
+
+    @Test
+    @DisplayName ("username 조회 : 블로킹 vs 비동기")
+    public void findByUsername () throws InterruptedException {
+        Result blocking = run("/v1/members/by-username/load-");
+        Result async = run("/v1/async/members/by-username/load-");
+
+        System.out.println("[blocking] " + blocking);
+        System.out.println("[async]    " + async);
+
+        assertThat(blocking.failed.get()).isZero();
+        assertThat(async.failed.get()).isZero();
+    }
+
+    private Result run(final String pathPrefix) throws InterruptedException {
+        load(pathPrefix, WARM_UP, new Result());
+
+        Result result = new Result();
+        long started = System.nanoTime();
+        load(pathPrefix, MEASURE, result);
+        result.elapsedNanos = System.nanoTime() - started;
+        return result;
+    }
+
+    private void load(final String pathPrefix, final Duration duration, final Result result) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        for (int i = 0; i < CLIENTS; i++) {
+            clients.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    String path = pathPrefix + ThreadLocalRandom.current().nextInt(MEMBER_COUNT);
+                    result.record(send(path));
+                }
+            });
+        }
+        clients.shutdown();
+        clients.awaitTermination(duration.toSeconds() + 30, TimeUnit.SECONDS);
+    }
+
+    private Sample send(final String path) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+        long started = System.nanoTime();
+        try {
+            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            return new Sample(status, System.nanoTime() - started);
+        } catch (Exception e) {
+            return new Sample(-1, System.nanoTime() - started);
+        }
+    }
+
+    static class Sample {
+
+        final int status;
+
+        final long latencyNanos;
+
+        Sample(final int status, final long latencyNanos) {
+            this.status = status;
+            this.latencyNanos = latencyNanos;
+        }
+    }
+
+    static class Result {
+
+        final AtomicLong succeeded = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final List<Long> latencies = new ArrayList<>();
+        long elapsedNanos;
+
+        void record(final Sample sample) {
+            if (sample.status == 200) {
+                succeeded.incrementAndGet();
+            } else if (sample.status == 503) {
+                rejected.incrementAndGet();
+            } else {
+                failed.incrementAndGet();
+            }
+            synchronized (latencies) {
+                latencies.add(sample.latencyNanos);
+            }
+        }
+
+        @Override
+        public String toString() {
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            double seconds = elapsedNanos / 1e9;
+            return String.format("%.0f req/s, 성공 %d, 503 %d, 실패 %d, p50 %.1fms, p99 %.1fms",
+                    succeeded.get() / seconds, succeeded.get(), rejected.get(), failed.get(),
+                    percentile(sorted, 0.50), percentile(sorted, 0.99));
+        }
+
+        private static double percentile(final long[] sorted, final double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package me.joshua.querydsl_study.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 클라이언트가 보낸 잘못된 값은 500 이 아니라 400 으로 응답한다.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class MemberControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    @DisplayName ("해석할 수 없는 keyset 토큰은 400")
+    public void malformedToken () throws Exception {
+        mockMvc.perform(get("/v1/members/keyset").param("token", "not-a-token"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName ("정렬 조건과 맞지 않게 바꾼 keyset 토큰은 400")
+    public void tamperedToken () throws Exception {
+        String token = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("[\"old\"]".getBytes(StandardCharsets.UTF_8));
+
+        mockMvc.perform(get("/v1/members/keyset").param("token", token))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName ("비동기 keyset 조회도 잘못된 토큰은 400")
+    public void malformedToken_async () throws Exception {
+        MvcResult result = mockMvc.perform(get("/v1/async/members/keyset").param("token", "not-a-token"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName ("지원하지 않는 export 형식은 400")
+    public void unsupportedExportFormat () throws Exception {
+        mockMvc.perform(get("/v1/members/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+}
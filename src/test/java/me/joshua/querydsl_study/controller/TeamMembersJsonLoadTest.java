@@ -0,0 +1,148 @@
+package me.joshua.querydsl_study.controller;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import me.joshua.querydsl_study.dto.MemberDto;
+import me.joshua.querydsl_study.entity.Team;
+import me.joshua.querydsl_study.service.MemberBulkMutationService;
+import me.joshua.querydsl_study.service.MemberBulkService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static me.joshua.querydsl_study.entity.QMember.member;
+import static me.joshua.querydsl_study.entity.QTeam.team;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 팀 회원 목록 응답 한 번에 서버 스레드가 할당하는 바이트 비교 (./gradlew loadTest, 기본 test 에서는 제외)
+ *
+ * - /hello : 요청 처리 자체의 기준값
+ * - /v1/teams/{id}/members : DTO List -> Jackson
+ * - /v1/teams/{id}/members/stream : ResultSet -> JsonGenerator -> 응답 스트림
+ *
+ * 톰캣 요청 스레드 (http-nio-) 와 StreamingResponseBody 스레드 (mvc-async-) 의 할당량만 센다.
+ * 결과는 표준 출력으로 남기고, 스트리밍 경로가 더 적게 할당하는지만 확인한다.
+ */
+@Tag ("load")
+@SpringBootTest (
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "querydsl-study.n-plus-one.mode=off")
+class TeamMembersJsonLoadTest {
+
+    static final String PREFIX = "json-load-";
+    static final int MEMBER_COUNT = 5_000;
+    static final int WARM_UP = 200;
+    static final int REQUESTS = 500;
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    MemberBulkService memberBulkService;
+
+    @Autowired
+    MemberBulkMutationService memberBulkMutationService;
+
+    HttpClient client;
+
+    Long teamId;
+
+    @BeforeEach
+    public void before () {
+        client = HttpClient.newHttpClient();
+
+        teamId = transactionTemplate.execute(status -> {
+            Team teamA = new Team(PREFIX + "teamA");
+            em.persist(teamA);
+            return teamA.getId();
+        });
+        List<MemberDto> members = IntStream.range(0, MEMBER_COUNT)
+                .mapToObj(i -> new MemberDto(PREFIX + i, i % 100))
+                .collect(Collectors.toList());
+        memberBulkService.saveMembers(members, teamId);
+    }
+
+    @AfterEach
+    public void after () {
+        memberBulkMutationService.delete(member.username.startsWith(PREFIX));
+        transactionTemplate.executeWithoutResult(status ->
+                queryFactory.delete(team).where(team.name.startsWith(PREFIX)).execute());
+    }
+
+    @Test
+    @DisplayName ("응답당 할당량 : hello vs DTO List vs ResultSet 스트리밍")
+    public void allocationPerResponse () throws Exception {
+        long hello = allocatedPerRequest("/hello");
+        long list = allocatedPerRequest("/v1/teams/" + teamId + "/members");
+        long stream = allocatedPerRequest("/v1/teams/" + teamId + "/members/stream");
+
+        System.out.printf("[hello]  %,d bytes/response%n", hello);
+        System.out.printf("[list]   %,d bytes/response%n", list);
+        System.out.printf("[stream] %,d bytes/response (%.1f%% of list)%n", stream, stream * 100.0 / list);
+
+        assertThat(stream).isLessThan(list);
+    }
+
+    private long allocatedPerRequest(final String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+        for (int i = 0; i < WARM_UP; i++) {
+            send(request);
+        }
+
+        long before = serverAllocatedBytes();
+        for (int i = 0; i < REQUESTS; i++) {
+            send(request);
+        }
+        return (serverAllocatedBytes() - before) / REQUESTS;
+    }
+
+    private void send(final HttpRequest request) throws Exception {
+        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        assertThat(status).isEqualTo(200);
+    }
+
+    /**
+     * 서버 스레드가 지금까지 할당한 바이트 합 (HotSpot 의 스레드별 할당 카운터)
+     */
+    private static long serverAllocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long[] ids = Arrays.stream(threads.getThreadInfo(threads.getAllThreadIds()))
+                .filter(info -> info != null && isServerThread(info))
+                .mapToLong(ThreadInfo::getThreadId)
+                .toArray();
+        return Arrays.stream(threads.getThreadAllocatedBytes(ids))
+                .filter(bytes -> bytes > 0)
+                .sum();
+    }
+
+    private static boolean isServerThread(final ThreadInfo info) {
+        return info.getThreadName().startsWith("http-nio-") || info.getThreadName().startsWith("mvc-async-");
+    }
+}
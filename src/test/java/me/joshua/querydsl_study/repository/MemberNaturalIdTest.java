@@ -0,0 +1,164 @@
+package me.joshua.querydsl_study.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import me.joshua.querydsl_study.entity.Member;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static me.joshua.querydsl_study.entity.QMember.member;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * natural id 캐시는 커밋된 데이터만 다른 트랜잭션에 보여주므로
+ * 이 테스트는 트랜잭션을 나눠서 커밋하고, 끝나면 직접 지운다.
+ */
+@SpringBootTest
+class MemberNaturalIdTest {
+
+    static final String PREFIX = "natural-";
+    static final int COUNT = 20;
+    static final int RENAMES = 100;
+    static final int LOOKUPS = 300;
+
+    @Autowired
+    EntityManager em;
+
+    @PersistenceUnit
+    EntityManagerFactory emf;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    MemberQueryRepository memberQueryRepository;
+
+    Statistics statistics;
+
+    Long[] ids = new Long[COUNT];
+
+    @BeforeEach
+    public void before () {
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < COUNT; i++) {
+                Member saved = new Member(name(i, false), i);
+                em.persist(saved);
+                ids[i] = saved.getId();
+            }
+        });
+    }
+
+    @AfterEach
+    public void after () {
+        transactionTemplate.executeWithoutResult(status ->
+                queryFactory.delete(member).where(member.username.startsWith(PREFIX)).execute());
+    }
+
+    @Test
+    @DisplayName ("한 번 조회한 username 은 다음 트랜잭션부터 SQL 없이 조회된다.")
+    public void resolveWithoutSql () {
+        memberQueryRepository.findByUsername(name(0, false));
+
+        statistics.clear();
+        Member found = memberQueryRepository.findByUsername(name(0, false));
+
+        assertThat(found.getId()).isEqualTo(ids[0]);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getNaturalIdCacheHitCount()).isPositive();
+    }
+
+    @Test
+    @DisplayName ("같은 트랜잭션 안에서 바꾼 이름은 flush 전에도 새 이름으로만 조회된다.")
+    public void renameInTransaction () {
+        transactionTemplate.executeWithoutResult(status -> {
+            Member found = memberQueryRepository.findByUsername(name(0, false));
+            found.setUsername(name(0, true));
+
+            assertThat(memberQueryRepository.findByUsername(name(0, true))).isSameAs(found);
+            assertThat(memberQueryRepository.findByUsername(name(0, false))).isNull();
+        });
+
+        assertThat(memberQueryRepository.findByUsername(name(0, true)).getId()).isEqualTo(ids[0]);
+        assertThat(memberQueryRepository.findByUsername(name(0, false))).isNull();
+    }
+
+    @Test
+    @DisplayName ("이름이 계속 바뀌는 동안에도 다른 회원을 돌려주지 않고, 끝나면 마지막 이름으로만 조회된다.")
+    public void concurrentRename () throws Exception {
+        AtomicReferenceArray<String> committed = new AtomicReferenceArray<>(COUNT);
+        for (int i = 0; i < COUNT; i++) {
+            committed.set(i, name(i, false));
+        }
+        ConcurrentLinkedQueue<String> errors = new ConcurrentLinkedQueue<>();
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int w = 0; w < 2; w++) {
+            int writer = w;
+            futures.add(executor.submit(() -> {
+                for (int n = 0; n < RENAMES; n++) {
+                    int i = ThreadLocalRandom.current().nextInt(COUNT / 2) * 2 + writer;
+                    String next = committed.get(i).equals(name(i, false)) ? name(i, true) : name(i, false);
+                    transactionTemplate.executeWithoutResult(status -> em.find(Member.class, ids[i]).setUsername(next));
+                    committed.set(i, next);
+                }
+            }));
+        }
+        for (int r = 0; r < 4; r++) {
+            futures.add(executor.submit(() -> {
+                for (int n = 0; n < LOOKUPS; n++) {
+                    int i = ThreadLocalRandom.current().nextInt(COUNT);
+                    String name = name(i, ThreadLocalRandom.current().nextBoolean());
+                    Member found = memberQueryRepository.findByUsername(name);
+                    if (found != null && !found.getId().equals(ids[i])) {
+                        errors.add(name + " -> " + found.getId());
+                    }
+                }
+            }));
+        }
+
+        try {
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(errors).isEmpty();
+        for (int i = 0; i < COUNT; i++) {
+            String current = committed.get(i);
+            String previous = current.equals(name(i, false)) ? name(i, true) : name(i, false);
+            assertThat(memberQueryRepository.findByUsername(current).getId()).isEqualTo(ids[i]);
+            assertThat(memberQueryRepository.findByUsername(previous)).isNull();
+        }
+    }
+
+    private static String name(final int i, final boolean renamed) {
+        return PREFIX + i + (renamed ? "-renamed" : "");
+    }
+}
@@ -0,0 +1,134 @@
+package me.joshua.querydsl_study.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import me.joshua.querydsl_study.dto.MemberDto;
+import me.joshua.querydsl_study.dto.MemberSearchCondition;
+import me.joshua.querydsl_study.dto.MemberTeamDto;
+import me.joshua.querydsl_study.entity.Member;
+import me.joshua.querydsl_study.entity.Team;
+import me.joshua.querydsl_study.support.KeysetPage;
+import me.joshua.querydsl_study.support.KeysetPaginator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+
+import static me.joshua.querydsl_study.entity.QMember.member;
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class MemberQueryRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    MemberQueryRepository memberQueryRepository;
+
+    @BeforeEach
+    public void before () {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        // 같은 나이가 있어도 id 로 순서가 정해져야 한다.
+        em.persist(new Member("member5", 30, teamB));
+    }
+
+    @Test
+    @DisplayName("keyset 페이징 - 토큰을 따라가면 누락, 중복 없이 전체를 순회한다.")
+    public void keysetPaging () {
+        KeysetPage<MemberDto> page1 = memberQueryRepository.findPageOrderByAgeDesc(2, null);
+        assertThat(page1.getContent()).extracting("username").containsExactly("member4", "member5");
+        assertThat(page1.isHasNext()).isTrue();
+
+        KeysetPage<MemberDto> page2 = memberQueryRepository.findPageOrderByAgeDesc(2, page1.getNextToken());
+        assertThat(page2.getContent()).extracting("username").containsExactly("member3", "member2");
+        assertThat(page2.isHasNext()).isTrue();
+
+        KeysetPage<MemberDto> page3 = memberQueryRepository.findPageOrderByAgeDesc(2, page2.getNextToken());
+        assertThat(page3.getContent()).extracting("username").containsExactly("member1");
+        assertThat(page3.isHasNext()).isFalse();
+        assertThat(page3.getNextToken()).isNull();
+    }
+
+    @Test
+    @DisplayName("keyset 페이징 - 최대값보다 큰 size 는 최대값으로 줄인다.")
+    public void keysetPaging_maxSize () {
+        KeysetPage<Member> page = new KeysetPaginator(2).fetch(
+                queryFactory.selectFrom(member),
+                100,
+                null,
+                m -> new Object[]{m.getAge(), m.getId()},
+                member.age.desc(), member.id.desc());
+
+        assertThat(page.getContent()).extracting("username").containsExactly("member4", "member5");
+        assertThat(page.isHasNext()).isTrue();
+    }
+
+    @Test
+    @DisplayName("keyset 페이징 - 잘못된 토큰")
+    public void keysetPaging_invalidToken () {
+        assertThatThrownBy(() -> memberQueryRepository.findPageOrderByAgeDesc(2, "not-a-token"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("회원 검색 - 팀 이름과 나이 범위로 검색하고, 공백 조건은 무시한다.")
+    public void search () {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("  ");
+        condition.setTeamName(" teamB ");
+        condition.setAgeGoe(30);
+        condition.setAgeLoe(35);
+
+        Page<MemberTeamDto> result = memberQueryRepository.search(condition, PageRequest.of(0, 10));
+
+        assertThat(result.getContent()).extracting("username").containsExactly("member5", "member3");
+        assertThat(result.getContent()).extracting("teamName").containsOnly("teamB");
+        assertThat(result.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("회원 검색 - 나이 범위가 비어 있으면 쿼리 없이 빈 페이지를 돌려준다.")
+    public void searchEmptyRange () {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("member1");
+        condition.setAgeGoe(40);
+        condition.setAgeLoe(10);
+
+        Page<MemberTeamDto> result = memberQueryRepository.search(condition, PageRequest.of(0, 10));
+
+        assertThat(result.getContent()).isEmpty();
+        assertThat(result.getTotalElements()).isZero();
+    }
+
+    @Test
+    @DisplayName("회원 검색 - 팀이 없는 회원도 검색된다.")
+    public void searchWithoutTeam () {
+        em.persist(new Member("member6", 50));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("member6");
+
+        Page<MemberTeamDto> result = memberQueryRepository.search(condition, PageRequest.of(0, 10));
+
+        assertThat(result.getContent()).extracting("username").containsExactly("member6");
+        assertThat(result.getContent().get(0).getTeamName()).isNull();
+    }
+}
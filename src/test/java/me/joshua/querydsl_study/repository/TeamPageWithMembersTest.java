@@ -0,0 +1,170 @@
+package me.joshua.querydsl_study.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import me.joshua.querydsl_study.dto.MemberDto;
+import me.joshua.querydsl_study.entity.Team;
+import me.joshua.querydsl_study.service.MemberBulkService;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnit;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static me.joshua.querydsl_study.entity.QMember.member;
+import static me.joshua.querydsl_study.entity.QTeam.team;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 팀 100,000 개 중 한 페이지를 회원과 함께 조회할 때
+ * 영속성 컨텍스트에 올라오는 엔티티 수가 페이지 크기에 비례하는지 확인한다. (힙 사용량을 직접 재지는 않는다.)
+ *
+ * 데이터는 클래스마다 한 번만 넣고 커밋하며, 끝나면 직접 지운다.
+ * 테스트마다 새 트랜잭션 (새 영속성 컨텍스트) 에서 조회한다.
+ */
+@SpringBootTest
+@TestInstance (TestInstance.Lifecycle.PER_CLASS)
+class TeamPageWithMembersTest {
+
+    static final String PREFIX = "paging-";
+
+    static final int TEAM_COUNT = 100_000;
+
+    static final int MEMBERS_PER_TEAM = 5;
+
+    static final int PAGE_SIZE = 20;
+
+    @Autowired
+    EntityManager em;
+
+    @PersistenceUnit
+    EntityManagerFactory emf;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    MemberBulkService memberBulkService;
+
+    @Autowired
+    TeamQueryRepository teamQueryRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    Statistics statistics;
+
+    @BeforeAll
+    public void seed () {
+        List<String> names = IntStream.range(0, TEAM_COUNT)
+                .mapToObj(i -> String.format("%s%06d", PREFIX, i))
+                .collect(Collectors.toList());
+        memberBulkService.saveTeams(names);
+
+        // 두번째 페이지 (20 ~ 39) 팀에만 회원을 둔다.
+        List<Long> teamIds = transactionTemplate.execute(status -> queryFactory
+                .select(team.id)
+                .from(team)
+                .where(team.name.startsWith(PREFIX))
+                .orderBy(team.name.asc())
+                .offset(PAGE_SIZE)
+                .limit(PAGE_SIZE)
+                .fetch());
+        for (Long teamId : teamIds) {
+            List<MemberDto> members = IntStream.range(0, MEMBERS_PER_TEAM)
+                    .mapToObj(i -> new MemberDto(PREFIX + teamId + "-" + i, i * 10))
+                    .collect(Collectors.toList());
+            memberBulkService.saveMembers(members, teamId);
+        }
+    }
+
+    @AfterAll
+    public void cleanup () {
+        transactionTemplate.executeWithoutResult(status -> {
+            queryFactory.delete(member).where(member.username.startsWith(PREFIX)).execute();
+            queryFactory.delete(team).where(team.name.startsWith(PREFIX)).execute();
+        });
+    }
+
+    @BeforeEach
+    public void before () {
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName ("컬렉션 fetch join + offset / limit 은 전체 팀을 영속성 컨텍스트에 올려서 페이징한다. (비교 기준)")
+    public void fetchJoinPaging () {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Team> teams = queryFactory
+                    .selectFrom(team)
+                    .distinct()
+                    .leftJoin(team.members, member).fetchJoin()
+                    .where(team.name.startsWith(PREFIX))
+                    .orderBy(team.name.asc(), team.id.asc())
+                    .offset(PAGE_SIZE)
+                    .limit(PAGE_SIZE)
+                    .fetch();
+
+            assertThat(teams).hasSize(PAGE_SIZE);
+            assertThat(managedEntities()).isGreaterThanOrEqualTo(TEAM_COUNT);
+        });
+    }
+
+    @Test
+    @DisplayName ("id 를 먼저 페이징하면 한 페이지의 팀과 회원만 조회한다.")
+    public void twoPhasePaging () {
+        transactionTemplate.executeWithoutResult(status -> {
+            Page<Team> page = teamQueryRepository.findPageWithMembers(PREFIX, PageRequest.of(1, PAGE_SIZE));
+
+            assertThat(page.getTotalElements()).isEqualTo(TEAM_COUNT);
+            assertThat(page.getContent())
+                    .extracting(Team::getName)
+                    .containsExactlyElementsOf(IntStream.range(PAGE_SIZE, PAGE_SIZE * 2)
+                            .mapToObj(i -> String.format("%s%06d", PREFIX, i))
+                            .collect(Collectors.toList()));
+            assertThat(page.getContent())
+                    .allSatisfy(t -> {
+                        assertThat(Hibernate.isInitialized(t.getMembers())).isTrue();
+                        assertThat(t.getMembers()).hasSize(MEMBERS_PER_TEAM);
+                    });
+
+            // 팀 20 + 회원 100 만 영속성 컨텍스트에 있다.
+            assertThat(managedEntities()).isEqualTo(PAGE_SIZE + PAGE_SIZE * MEMBERS_PER_TEAM);
+            // id 페이징 + fetch join + count
+            assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+        });
+    }
+
+    @Test
+    @DisplayName ("마지막 페이지 다음은 빈 페이지다.")
+    public void emptyPage () {
+        Page<Team> page = transactionTemplate.execute(status -> teamQueryRepository.findPageWithMembers(PREFIX,
+                PageRequest.of(TEAM_COUNT / PAGE_SIZE, PAGE_SIZE)));
+
+        assertThat(page.getContent()).isEmpty();
+        assertThat(page.getTotalElements()).isEqualTo(TEAM_COUNT);
+    }
+
+    private int managedEntities() {
+        return em.unwrap(SessionImplementor.class)
+                .getPersistenceContextInternal()
+                .getNumberOfManagedEntities();
+    }
+}
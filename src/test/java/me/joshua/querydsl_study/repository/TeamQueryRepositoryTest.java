@@ -0,0 +1,124 @@
+package me.joshua.querydsl_study.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import me.joshua.querydsl_study.entity.Member;
+import me.joshua.querydsl_study.entity.Team;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnit;
+
+import static me.joshua.querydsl_study.entity.QMember.member;
+import static me.joshua.querydsl_study.entity.QTeam.team;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 2차 캐시는 커밋된 데이터만 다른 트랜잭션에 보여주므로
+ * 이 테스트는 @Transactional 롤백 대신 트랜잭션을 나눠서 커밋하고, 끝나면 직접 지운다.
+ */
+@SpringBootTest
+class TeamQueryRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @PersistenceUnit
+    EntityManagerFactory emf;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    TeamQueryRepository teamQueryRepository;
+
+    Statistics statistics;
+
+    Long teamAId;
+    Long teamBId;
+    Long memberId;
+
+    @BeforeEach
+    public void before () {
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("cacheTeamA");
+            Team teamB = new Team("cacheTeamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            Member member1 = new Member("cacheMember1", 10, teamA);
+            em.persist(member1);
+
+            teamAId = teamA.getId();
+            teamBId = teamB.getId();
+            memberId = member1.getId();
+        });
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void after () {
+        transactionTemplate.executeWithoutResult(status -> {
+            queryFactory.delete(member).where(member.id.eq(memberId)).execute();
+            queryFactory.delete(team).where(team.id.in(teamAId, teamBId)).execute();
+        });
+    }
+
+    @Test
+    @DisplayName("Team 2차 캐시 - 다른 트랜잭션에서 다시 조회하면 DB 를 거치지 않는다.")
+    public void entityCache () {
+        transactionTemplate.executeWithoutResult(status -> em.find(Team.class, teamAId));
+        transactionTemplate.executeWithoutResult(status -> em.find(Team.class, teamAId));
+
+        assertThat(statistics.getDomainDataRegionStatistics(Team.class.getName()).getHitCount())
+                .isGreaterThanOrEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("팀 이름 조회 쿼리 캐시")
+    public void queryCache () {
+        Team first = transactionTemplate.execute(status -> teamQueryRepository.findByName("cacheTeamA"));
+        long statements = statistics.getPrepareStatementCount();
+
+        Team second = transactionTemplate.execute(status -> teamQueryRepository.findByName("cacheTeamA"));
+
+        assertThat(first.getId()).isEqualTo(teamAId);
+        assertThat(second.getId()).isEqualTo(teamAId);
+        assertThat(statistics.getQueryRegionStatistics(TeamQueryRepository.TEAM_BY_NAME_REGION).getHitCount())
+                .isGreaterThanOrEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+    }
+
+    @Test
+    @DisplayName("changeTeam 으로 팀을 옮기면 양쪽 Team.members 컬렉션 캐시가 무효화된다.")
+    public void changeTeam_evictsCollectionCache () {
+        // 컬렉션 캐시에 올린다.
+        transactionTemplate.executeWithoutResult(status ->
+                assertThat(em.find(Team.class, teamAId).getMembers()).hasSize(1));
+        transactionTemplate.executeWithoutResult(status ->
+                assertThat(em.find(Team.class, teamBId).getMembers()).isEmpty());
+
+        transactionTemplate.executeWithoutResult(status ->
+                em.find(Member.class, memberId).changeTeam(em.find(Team.class, teamBId)));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            assertThat(em.find(Team.class, teamAId).getMembers()).isEmpty();
+            assertThat(em.find(Team.class, teamBId).getMembers())
+                    .extracting("username")
+                    .containsExactly("cacheMember1");
+        });
+    }
+}
@@ -0,0 +1,127 @@
+package me.joshua.querydsl_study.service;
+
+import me.joshua.querydsl_study.entity.Member;
+import me.joshua.querydsl_study.entity.Team;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+
+import static me.joshua.querydsl_study.entity.QMember.member;
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class MemberBulkMutationServiceTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberBulkMutationService memberBulkMutationService;
+
+    Member member1;
+    Member member3;
+    Member member4;
+
+    @BeforeEach
+    public void before () {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        member1 = new Member("member1", 10, teamA);
+        member3 = new Member("member3", 30, teamB);
+        member4 = new Member("member4", 40, teamB);
+        em.persist(member1);
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(member3);
+        em.persist(member4);
+    }
+
+    @Test
+    @DisplayName("벌크 수정 - 영향을 받은 엔티티만 DB 값으로 갱신된다.")
+    public void addAge () {
+        long updated = memberBulkMutationService.addAge(member.age.goe(30), 1);
+
+        assertThat(updated).isEqualTo(2);
+        // 이미 조회해 둔 엔티티도 예전 값이 아니라 DB 값을 본다.
+        assertThat(member3.getAge()).isEqualTo(31);
+        assertThat(member4.getAge()).isEqualTo(41);
+        assertThat(member1.getAge()).isEqualTo(10);
+        // 영향 없는 엔티티는 영속성 컨텍스트에 그대로 남아있다.
+        assertThat(em.contains(member1)).isTrue();
+    }
+
+    @Test
+    @DisplayName("벌크 수정 - 쓰기 지연된 변경이 벌크 결과를 덮어쓰지 않는다.")
+    public void addAge_withPendingChange () {
+        member3.setAge(100);
+
+        memberBulkMutationService.addAge(member.age.goe(30), 1);
+        em.flush();
+        em.clear();
+
+        assertThat(em.find(Member.class, member3.getId()).getAge()).isEqualTo(101);
+    }
+
+    @Test
+    @DisplayName("벌크 삭제 - 삭제된 엔티티는 영속성 컨텍스트에서 분리된다.")
+    public void delete () {
+        long deleted = memberBulkMutationService.delete(member.age.goe(30));
+
+        assertThat(deleted).isEqualTo(2);
+        assertThat(em.contains(member3)).isFalse();
+        assertThat(em.contains(member4)).isFalse();
+        assertThat(em.contains(member1)).isTrue();
+    }
+
+    @Test
+    @DisplayName("벌크 삭제 - 이미 로딩된 팀 회원 목록에서도 빠진다.")
+    public void delete_removesFromTeamMembers () {
+        Team teamB = member3.getTeam();
+
+        memberBulkMutationService.delete(member.age.goe(30));
+
+        assertThat(teamB.getMembers()).isEmpty();
+        assertThat(member1.getTeam().getMembers()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("벌크 수정 - 연관 엔티티를 거치는 조건은 id 서브쿼리로 바꿔서 실행한다.")
+    public void addAge_byTeamName () {
+        long updated = memberBulkMutationService.addAge(member.team.name.eq("teamB"), 1);
+
+        assertThat(updated).isEqualTo(2);
+        assertThat(member3.getAge()).isEqualTo(31);
+        assertThat(member4.getAge()).isEqualTo(41);
+        assertThat(member1.getAge()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("벌크 삭제 - 연관 엔티티 조건과 일반 조건을 함께 쓸 수 있다.")
+    public void delete_byTeamNameAndAge () {
+        long deleted = memberBulkMutationService.delete(
+                member.team.name.eq("teamA").and(member.age.goe(20)).or(member.team.name.eq("teamB").and(member.age.eq(40))));
+
+        assertThat(deleted).isEqualTo(2);
+        assertThat(em.contains(member4)).isFalse();
+        assertThat(em.contains(member1)).isTrue();
+        assertThat(em.contains(member3)).isTrue();
+    }
+
+    @Test
+    @DisplayName("벌크 수정 - 연관 엔티티의 id 만 쓰는 조건은 외래 키로 그대로 비교한다.")
+    public void addAge_byTeamId () {
+        long updated = memberBulkMutationService.addAge(member.team.id.eq(member1.getTeam().getId()), 1);
+
+        assertThat(updated).isEqualTo(2);
+        assertThat(member1.getAge()).isEqualTo(11);
+        assertThat(member3.getAge()).isEqualTo(30);
+    }
+}
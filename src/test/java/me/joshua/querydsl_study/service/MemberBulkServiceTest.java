@@ -0,0 +1,125 @@
+package me.joshua.querydsl_study.service;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import me.joshua.querydsl_study.dto.MemberDto;
+import me.joshua.querydsl_study.entity.Member;
+import me.joshua.querydsl_study.entity.Team;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnit;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static me.joshua.querydsl_study.entity.QMember.member;
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class MemberBulkServiceTest {
+
+    static final int COUNT = 10_000;
+
+    @Autowired
+    EntityManager em;
+
+    @PersistenceUnit
+    EntityManagerFactory emf;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    MemberBulkService memberBulkService;
+
+    Statistics statistics;
+
+    @BeforeEach
+    public void before () {
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("대량 등록 - 시퀀스 조회와 INSERT 가 batch_size 단위로 묶인다.")
+    public void saveMembers () {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.flush();
+        statistics.clear();
+
+        int saved = memberBulkService.saveMembers(members(COUNT), teamA.getId());
+
+        assertThat(saved).isEqualTo(COUNT);
+        // 시퀀스 조회 (COUNT / 100) + batch INSERT (COUNT / 100) 정도, 행마다 보냈다면 COUNT * 2
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(COUNT / 100 * 2 + 10);
+
+        Long count = queryFactory
+                .select(member.count())
+                .from(member)
+                .where(member.team.id.eq(teamA.getId()))
+                .fetchOne();
+        assertThat(count).isEqualTo(COUNT);
+    }
+
+    @Test
+    @DisplayName("대량 등록 - 팀")
+    public void saveTeams () {
+        List<String> names = IntStream.range(0, 1_000)
+                .mapToObj(i -> "team" + i)
+                .collect(Collectors.toList());
+
+        assertThat(memberBulkService.saveTeams(names)).isEqualTo(1_000);
+    }
+
+    /**
+     * 기존 before() 처럼 한 건씩 persist + flush 하는 경우와 비교
+     * 결과는 환경마다 다르므로 출력만 한다. (./gradlew loadTest 로 실행)
+     */
+    @Test
+    @Tag ("load")
+    @DisplayName("대량 등록 벤치마크 - persist 반복 vs MemberBulkService")
+    public void benchmark () {
+        long start = System.nanoTime();
+        for (MemberDto dto : members(COUNT, "bulk-loop")) {
+            em.persist(new Member(dto.getUsername(), dto.getAge()));
+            em.flush();
+        }
+        em.clear();
+        long loopNanos = System.nanoTime() - start;
+        long loopStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        start = System.nanoTime();
+        // username 은 유일해야 하므로 (natural id) 위에서 넣은 회원과 다른 이름을 쓴다.
+        memberBulkService.saveMembers(members(COUNT, "bulk-svc"), null);
+        long bulkNanos = System.nanoTime() - start;
+        long bulkStatements = statistics.getPrepareStatementCount();
+
+        System.out.println("persist loop = " + loopNanos / 1_000_000 + "ms, statements = " + loopStatements);
+        System.out.println("bulk service = " + bulkNanos / 1_000_000 + "ms, statements = " + bulkStatements);
+        System.out.println("speedup = " + (double) loopNanos / bulkNanos);
+
+        assertThat(bulkStatements).isLessThan(loopStatements);
+    }
+
+    private List<MemberDto> members(final int count) {
+        return members(count, "bulk");
+    }
+
+    private List<MemberDto> members(final int count, final String prefix) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new MemberDto(prefix + i, i % 100))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,65 @@
+package me.joshua.querydsl_study.service;
+
+import me.joshua.querydsl_study.entity.Member;
+import me.joshua.querydsl_study.entity.Team;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = "querydsl-study.export.chunk-size=2")
+@Transactional
+class MemberExportServiceTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberExportService memberExportService;
+
+    @BeforeEach
+    public void before () {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member,3", 30, teamA));
+    }
+
+    @Test
+    @DisplayName("ndjson 내보내기 - 한 줄에 한 회원")
+    public void exportNdjson () throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = memberExportService.export(ExportFormat.NDJSON, out);
+
+        assertThat(count).isEqualTo(3);
+        assertThat(out.toString(StandardCharsets.UTF_8).split("\n")).containsExactly(
+                "{\"username\":\"member1\",\"age\":10}",
+                "{\"username\":\"member2\",\"age\":20}",
+                "{\"username\":\"member,3\",\"age\":30}");
+    }
+
+    @Test
+    @DisplayName("csv 내보내기 - 구분자가 포함된 값은 따옴표로 감싼다.")
+    public void exportCsv () throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        memberExportService.export(ExportFormat.CSV, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8).split("\n")).containsExactly(
+                "username,age",
+                "member1,10",
+                "member2,20",
+                "\"member,3\",30");
+    }
+}
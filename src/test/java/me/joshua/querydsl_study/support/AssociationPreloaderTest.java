@@ -0,0 +1,129 @@
+package me.joshua.querydsl_study.support;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import me.joshua.querydsl_study.entity.Member;
+import me.joshua.querydsl_study.entity.Team;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnit;
+import java.util.List;
+
+import static me.joshua.querydsl_study.entity.QMember.member;
+import static me.joshua.querydsl_study.entity.QTeam.team;
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class AssociationPreloaderTest {
+
+    static final int TEAM_COUNT = 100;
+
+    @Autowired
+    EntityManager em;
+
+    @PersistenceUnit
+    EntityManagerFactory emf;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    AssociationPreloader associationPreloader;
+
+    Statistics statistics;
+
+    @BeforeEach
+    public void before () {
+        for (int i = 0; i < TEAM_COUNT; i++) {
+            Team t = new Team("batchTeam" + i);
+            em.persist(t);
+            em.persist(new Member("batchMemberA" + i, i, t));
+            em.persist(new Member("batchMemberB" + i, i, t));
+        }
+        em.flush();
+        em.clear();
+
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("@BatchSize - 100개 팀의 members 를 순회해도 SELECT 는 101번이 아니라 2번")
+    public void batchFetch_teamMembers () {
+        List<Team> teams = queryFactory
+                .selectFrom(team)
+                .where(team.name.startsWith("batchTeam"))
+                .fetch();
+
+        int memberCount = 0;
+        for (Team t : teams) {
+            memberCount += t.getMembers().size();
+        }
+
+        assertThat(memberCount).isEqualTo(TEAM_COUNT * 2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("@BatchSize - 회원 200명의 team 프록시도 한 번에 초기화된다.")
+    public void batchFetch_memberTeam () {
+        List<Member> members = queryFactory
+                .selectFrom(member)
+                .where(member.username.startsWith("batchMember"))
+                .fetch();
+
+        for (Member m : members) {
+            m.getTeam().getName();
+        }
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("preloadTeams - 프록시 접근 전에 한 번에 로딩해 두면 이후 접근은 SQL 이 나가지 않는다.")
+    public void preloadTeams () {
+        List<Member> members = queryFactory
+                .selectFrom(member)
+                .where(member.username.startsWith("batchMember"))
+                .fetch();
+
+        associationPreloader.preloadTeams(members);
+        long afterPreload = statistics.getPrepareStatementCount();
+
+        for (Member m : members) {
+            m.getTeam().getName();
+        }
+
+        assertThat(afterPreload).isEqualTo(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(afterPreload);
+    }
+
+    @Test
+    @DisplayName("preloadMembers - 팀 목록의 members 컬렉션을 fetch join 한 번으로 초기화")
+    public void preloadMembers () {
+        List<Team> teams = queryFactory
+                .selectFrom(team)
+                .where(team.name.startsWith("batchTeam"))
+                .fetch();
+
+        associationPreloader.preloadMembers(teams);
+        long afterPreload = statistics.getPrepareStatementCount();
+
+        for (Team t : teams) {
+            assertThat(emf.getPersistenceUnitUtil().isLoaded(t, "members")).isTrue();
+            assertThat(t.getMembers()).hasSize(2);
+        }
+
+        assertThat(afterPreload).isEqualTo(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(afterPreload);
+    }
+}
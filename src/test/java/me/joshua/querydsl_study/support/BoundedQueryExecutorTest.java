@@ -0,0 +1,69 @@
+package me.joshua.querydsl_study.support;
+
+import me.joshua.querydsl_study.support.BoundedQueryExecutor.Mode;
+import me.joshua.querydsl_study.support.BoundedQueryExecutor.QueryRejectedException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BoundedQueryExecutorTest {
+
+    @Test
+    @DisplayName ("동시 실행 수를 넘는 작업은 기다리지 않고 거절한다.")
+    public void backpressure () throws Exception {
+        BoundedQueryExecutor executor = new BoundedQueryExecutor(1, 0, Mode.PLATFORM,
+                new NPlusOneDetector(NPlusOneDetector.Mode.OFF, 2));
+        CountDownLatch latch = new CountDownLatch(1);
+
+        CompletableFuture<String> running = executor.submit(() -> {
+            await(latch);
+            return "done";
+        });
+        CompletableFuture<String> rejected = executor.submit(() -> "rejected");
+
+        assertThat(rejected).isCompletedExceptionally();
+        assertThatThrownBy(rejected::join).hasCauseInstanceOf(QueryRejectedException.class);
+
+        latch.countDown();
+        assertThat(running.get()).isEqualTo("done");
+        assertThat(executor.submit(() -> "next").get()).isEqualTo("next");
+
+        executor.destroy();
+    }
+
+    @Test
+    @DisplayName ("대기 자리가 있으면 작업 스레드에서 기다렸다가 실행한다.")
+    public void queue () throws Exception {
+        BoundedQueryExecutor executor = new BoundedQueryExecutor(1, 1, Mode.PLATFORM,
+                new NPlusOneDetector(NPlusOneDetector.Mode.OFF, 2));
+        CountDownLatch latch = new CountDownLatch(1);
+
+        CompletableFuture<String> running = executor.submit(() -> {
+            await(latch);
+            return "done";
+        });
+        CompletableFuture<String> queued = executor.submit(() -> "queued");
+        CompletableFuture<String> rejected = executor.submit(() -> "rejected");
+
+        assertThat(queued).isNotDone();
+        assertThatThrownBy(rejected::join).hasCauseInstanceOf(QueryRejectedException.class);
+
+        latch.countDown();
+        assertThat(running.get()).isEqualTo("done");
+        assertThat(queued.get()).isEqualTo("queued");
+
+        executor.destroy();
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package me.joshua.querydsl_study.support;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import me.joshua.querydsl_study.entity.Member;
+import me.joshua.querydsl_study.entity.Team;
+import me.joshua.querydsl_study.repository.TeamQueryRepository;
+import me.joshua.querydsl_study.support.ColumnarResult.DictionaryColumn;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+
+import static me.joshua.querydsl_study.entity.QMember.member;
+import static me.joshua.querydsl_study.support.ColumnarResult.ColumnType.*;
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class ColumnarQueryExecutorTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    ColumnarQueryExecutor columnarQueryExecutor;
+
+    @Autowired
+    TeamQueryRepository teamQueryRepository;
+
+    @BeforeEach
+    public void before () {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+    }
+
+    @Test
+    @DisplayName("팀별 집계를 컬럼 배열로 조회 (QuerydslBasicTest.group 과 같은 결과)")
+    public void teamAgeStats () {
+        ColumnarResult result = teamQueryRepository.findAgeStatsColumns();
+
+        assertThat(result.size()).isEqualTo(2);
+
+        DictionaryColumn teamName = result.dictionaryColumn(0);
+        assertThat(teamName.get(0)).isEqualTo("teamA");
+        assertThat(teamName.get(1)).isEqualTo("teamB");
+        assertThat(teamName.dictionary()).containsExactly("teamA", "teamB");
+
+        assertThat(result.longColumn(1).values()).containsExactly(2, 2);
+        assertThat(result.longColumn(2).values()).containsExactly(30, 70);
+        assertThat(result.doubleColumn(3).values()).containsExactly(15.0, 35.0);
+        assertThat(result.intColumn(4).values()).containsExactly(20, 40);
+        assertThat(result.intColumn(5).values()).containsExactly(10, 30);
+    }
+
+    @Test
+    @DisplayName("조건의 상수는 JDBC 파라미터로 바인딩되어 실행된다.")
+    public void withConstants () {
+        ColumnarResult result = columnarQueryExecutor.fetch(
+                queryFactory
+                        .select(member.username, member.age)
+                        .from(member)
+                        .where(member.age.in(10, 30), member.username.ne("it's not a member"))
+                        .orderBy(member.age.asc()),
+                DICTIONARY, INT);
+
+        assertThat(result.dictionaryColumn(0).dictionary()).containsExactly("member1", "member3");
+        assertThat(result.intColumn(1).values()).containsExactly(10, 30);
+    }
+
+    @Test
+    @DisplayName("컬럼 타입 개수가 select 절과 다르면 예외")
+    public void columnCountMismatch () {
+        assertThatThrownBy(() -> columnarQueryExecutor.fetch(
+                queryFactory.select(member.username, member.age).from(member),
+                DICTIONARY))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,64 @@
+package me.joshua.querydsl_study.support;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import me.joshua.querydsl_study.entity.Member;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class DataSourceEndpointTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    DataSourceEndpoint dataSourceEndpoint;
+
+    @Test
+    @DisplayName ("풀 상태, 쿼리 플랜 캐시, 문장 종류별 실행 시간을 보여준다.")
+    @SuppressWarnings ("unchecked")
+    public void datasource () {
+        em.persist(new Member("member1", 10));
+        em.flush();
+        em.createQuery("select m from Member m", Member.class).getResultList();
+        em.createQuery("select m from Member m", Member.class).getResultList();
+
+        Map<String, Object> result = dataSourceEndpoint.datasource();
+
+        Map<String, Object> pools = (Map<String, Object>) result.get("pools");
+        assertThat(pools).containsKey("primary");
+        assertThat((Map<String, Object>) pools.get("primary")).containsKeys("active", "idle", "pending", "wait");
+
+        Map<String, Object> queryPlanCache = (Map<String, Object>) result.get("queryPlanCache");
+        assertThat((long) queryPlanCache.get("hit")).isPositive();
+
+        Map<String, Object> statements = (Map<String, Object>) result.get("statements");
+        assertThat(statements).containsKeys("select:success", "insert:success");
+    }
+
+    @Test
+    @DisplayName ("대기 시간이 목표보다 길면 풀을 늘리고, 한가하면 줄인다.")
+    public void adaptivePoolSize () {
+        AdaptivePoolSizer sizer = new AdaptivePoolSizer(
+                List.<HikariDataSource>of(), new SimpleMeterRegistry(), Duration.ofMillis(20), 10, 30, 5);
+        long millis = 1_000_000;
+
+        assertThat(sizer.nextSize(20, 50 * millis, 20)).isEqualTo(25);
+        assertThat(sizer.nextSize(28, 50 * millis, 28)).isEqualTo(30);
+        assertThat(sizer.nextSize(20, 10 * millis, 15)).isEqualTo(20);
+        assertThat(sizer.nextSize(20, millis, 5)).isEqualTo(15);
+        assertThat(sizer.nextSize(12, millis, 0)).isEqualTo(10);
+    }
+}
@@ -0,0 +1,41 @@
+package me.joshua.querydsl_study.support;
+
+import me.joshua.querydsl_study.support.HibernateSqlCompiler.CompiledSql;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * HibernateSqlCompiler 는 하이버네이트 내부 API 를 사용하므로 버전이 바뀌면 여기서 먼저 확인한다.
+ */
+@SpringBootTest
+class HibernateSqlCompilerTest {
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Test
+    @DisplayName ("동작을 확인한 하이버네이트 버전이다. 실패하면 내부 API 가 그대로인지 확인하고 SUPPORTED_VERSION 을 고친다.")
+    public void supportedVersion () {
+        assertThat(HibernateSqlCompiler.hibernateVersion()).startsWith(HibernateSqlCompiler.SUPPORTED_VERSION);
+    }
+
+    @Test
+    @DisplayName ("위치 파라미터는 SQL 의 ? 순서대로 HQL 번호를 돌려준다.")
+    public void compile () {
+        HibernateSqlCompiler compiler = new HibernateSqlCompiler(emf.unwrap(SessionFactoryImplementor.class));
+
+        CompiledSql compiled = compiler.compile(
+                "select m.username from Member m where m.age between ?2 and ?1 and m.username = ?3");
+
+        assertThat(compiled.getSql()).containsIgnoringCase("member");
+        assertThat(compiled.getSql().chars().filter(c -> c == '?').count()).isEqualTo(3);
+        assertThat(compiled.getLabels()).containsExactly(2, 1, 3);
+    }
+}
@@ -0,0 +1,119 @@
+package me.joshua.querydsl_study.support;
+
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.core.types.dsl.ParamNotSetException;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import me.joshua.querydsl_study.entity.Member;
+import me.joshua.querydsl_study.entity.Team;
+import me.joshua.querydsl_study.support.HqlSqlTranslator.Translation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static me.joshua.querydsl_study.entity.QMember.member;
+import static me.joshua.querydsl_study.support.ColumnarResult.ColumnType.*;
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class HqlSqlTranslatorTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    HqlSqlTranslator translator;
+
+    @Autowired
+    ColumnarQueryExecutor columnarQueryExecutor;
+
+    @BeforeEach
+    public void before () {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("it\\' or '1'='1", 30, teamA));
+    }
+
+    @Test
+    @DisplayName ("값이 달라도 같은 SQL 을 쓰고, 값은 SQL 에 들어가지 않는다.")
+    public void sameSqlForDifferentValues () {
+        Translation first = translator.translate(queryFactory
+                .select(member.username).from(member).where(member.username.eq("member1"), member.age.gt(5)));
+        Translation second = translator.translate(queryFactory
+                .select(member.username).from(member).where(member.username.eq("member2"), member.age.gt(15)));
+
+        assertThat(second.getSql()).isEqualTo(first.getSql());
+        assertThat(first.getSql()).doesNotContain("member1");
+        assertThat(first.getParameters()).containsExactly("member1", 5);
+        assertThat(second.getParameters()).containsExactly("member2", 15);
+    }
+
+    @Test
+    @DisplayName ("IN 목록은 2의 거듭제곱 개수까지 마지막 값으로 채워서 길이가 비슷하면 같은 SQL 을 쓴다.")
+    public void inClausePadding () {
+        Translation three = translator.translate(queryFactory
+                .select(member.username).from(member).where(member.age.in(10, 20, 30)));
+        Translation four = translator.translate(queryFactory
+                .select(member.username).from(member).where(member.age.in(10, 20, 30, 40)));
+
+        assertThat(three.getSql()).isEqualTo(four.getSql());
+        assertThat(three.getParameters()).containsExactly(10, 20, 30, 30);
+    }
+
+    @Test
+    @DisplayName ("따옴표, 백슬래시가 들어간 문자열도 값으로만 비교된다.")
+    public void quotesAreBoundAsValues () {
+        ColumnarResult result = columnarQueryExecutor.fetch(queryFactory
+                        .select(member.username, member.age)
+                        .from(member)
+                        .where(member.username.eq("it\\' or '1'='1")),
+                DICTIONARY, INT);
+
+        assertThat(result.size()).isEqualTo(1);
+        assertThat(result.intColumn(1).values()).containsExactly(30);
+    }
+
+    @Test
+    @DisplayName ("limit / offset 이 있는 쿼리는 변환할 수 없다.")
+    public void restrictedQuery () {
+        assertThatThrownBy(() -> translator.translate(queryFactory.selectFrom(member).limit(10)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName ("바인딩 값 목록은 SQL 의 ? 순서와 같다.")
+    public void parametersInSqlOrder () {
+        Translation translation = translator.translate(queryFactory
+                .select(member.username).from(member).where(member.age.between(10, 20)));
+
+        List<Object> parameters = translation.getParameters();
+        assertThat(parameters).containsExactly(10, 20);
+        assertThat(translation.getSql().chars().filter(c -> c == '?').count()).isEqualTo(parameters.size());
+    }
+
+    @Test
+    @DisplayName ("Param 은 쿼리에 바인딩된 값으로 바꾸고, 바인딩되지 않았으면 실패한다.")
+    public void params () {
+        Param<String> username = new Param<>(String.class, "username");
+
+        Translation bound = translator.translate(queryFactory
+                .select(member.age).from(member).where(member.username.eq(username))
+                .set(username, "member1"));
+
+        assertThat(bound.getParameters()).containsExactly("member1");
+        assertThatThrownBy(() -> translator.translate(queryFactory
+                .select(member.age).from(member).where(member.username.eq(username))))
+                .isInstanceOf(ParamNotSetException.class);
+    }
+}
@@ -0,0 +1,104 @@
+package me.joshua.querydsl_study.support;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import me.joshua.querydsl_study.dto.UserDto;
+import me.joshua.querydsl_study.entity.Member;
+import me.joshua.querydsl_study.entity.Team;
+import me.joshua.querydsl_study.repository.MemberQueryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class JsonStreamingQueryExecutorTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    MemberQueryRepository memberQueryRepository;
+
+    @Autowired
+    JsonStreamingQueryExecutor jsonStreamingQueryExecutor;
+
+    Long teamId;
+
+    @BeforeEach
+    public void before () {
+        Team teamA = new Team("jsonTeamA");
+        em.persist(teamA);
+        em.persist(new Member("json \"member1\"", 10, teamA));
+        em.persist(new Member("회원2", 20, teamA));
+        em.persist(new Member("member3\n", 30, teamA));
+        em.persist(new Member("member4", 40));
+        teamId = teamA.getId();
+    }
+
+    @Test
+    @DisplayName ("ResultSet 에서 바로 쓴 JSON 이 ObjectMapper 로 MemberDto 목록을 직렬화한 결과와 같다.")
+    public void memberDto () throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = memberQueryRepository.writeDtosByTeamId(teamId, out);
+
+        assertThat(count).isEqualTo(3);
+        assertThat(out.toString(StandardCharsets.UTF_8))
+                .isEqualTo(objectMapper.writeValueAsString(memberQueryRepository.findDtosByTeamId(teamId)));
+    }
+
+    @Test
+    @DisplayName ("UserDto 모양으로도 쓸 수 있다.")
+    public void userDto () throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        memberQueryRepository.writeUsersByTeamId(teamId, out);
+
+        List<UserDto> expected = memberQueryRepository.findDtosByTeamId(teamId).stream()
+                .map(dto -> new UserDto(dto.getUsername(), String.valueOf(dto.getAge())))
+                .collect(Collectors.toList());
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(objectMapper.writeValueAsString(expected));
+    }
+
+    @Test
+    @DisplayName ("결과가 없으면 빈 배열을 쓴다.")
+    public void empty () {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = memberQueryRepository.writeDtosByTeamId(-1L, out);
+
+        assertThat(count).isZero();
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("[]");
+    }
+
+    @Test
+    @DisplayName ("응답을 쓰는 동안 동시 실행 자리를 하나 잡고, 끝나면 돌려준다.")
+    public void holdsPermitWhileWriting () {
+        int available = jsonStreamingQueryExecutor.getAvailablePermits();
+        AtomicInteger whileWriting = new AtomicInteger(-1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void write(final byte[] b, final int off, final int len) {
+                whileWriting.compareAndSet(-1, jsonStreamingQueryExecutor.getAvailablePermits());
+                super.write(b, off, len);
+            }
+        };
+
+        memberQueryRepository.writeDtosByTeamId(teamId, out);
+
+        assertThat(whileWriting.get()).isEqualTo(available - 1);
+        assertThat(jsonStreamingQueryExecutor.getAvailablePermits()).isEqualTo(available);
+    }
+}
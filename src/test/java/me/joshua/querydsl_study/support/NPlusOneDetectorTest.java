@@ -0,0 +1,110 @@
+package me.joshua.querydsl_study.support;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import me.joshua.querydsl_study.entity.Member;
+import me.joshua.querydsl_study.entity.Team;
+import me.joshua.querydsl_study.support.NPlusOneDetector.NPlusOneException;
+import me.joshua.querydsl_study.support.NPlusOneDetector.Scope;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static me.joshua.querydsl_study.entity.QMember.member;
+import static me.joshua.querydsl_study.entity.QTeam.team;
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = "querydsl-study.n-plus-one.mode=fail")
+@Transactional
+class NPlusOneDetectorTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    NPlusOneDetector detector;
+
+    @BeforeEach
+    public void before () {
+        for (int i = 0; i < 3; i++) {
+            Team team = new Team("team" + i);
+            em.persist(team);
+            em.persist(new Member("member" + i, 10 * i, team));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    /**
+     * Team 에 @BatchSize 가 있으므로 목록을 조회한 뒤 team 에 접근하는 것은 IN 절 한 번으로 처리된다.
+     * 여기서는 회원을 한 명씩 조회하면서 team 에 접근해서 지연 로딩이 매번 따로 나가게 만든다.
+     */
+    @Test
+    @DisplayName("회원마다 따로 조회하면서 member.team 에 접근하면 N+1 로 감지된다.")
+    public void detectLazyTeamLoading () {
+        List<Long> memberIds = queryFactory
+                .select(member.id)
+                .from(member)
+                .fetch();
+
+        assertThatThrownBy(() -> {
+            try (Scope scope = detector.begin()) {
+                for (Long memberId : memberIds) {
+                    Member findMember = queryFactory
+                            .selectFrom(member)
+                            .where(member.id.eq(memberId))
+                            .fetchOne();
+                    findMember.getTeam().getName(); // 지연 로딩
+                }
+
+                assertThat(scope.getViolations())
+                        .extracting("entityName")
+                        .contains(Team.class.getName());
+                assertThat(scope.getViolations().get(0).getCallSite()).contains("NPlusOneDetectorTest");
+            }
+        }).isInstanceOf(NPlusOneException.class);
+    }
+
+    @Test
+    @DisplayName("fetch join 을 사용하면 감지되지 않는다.")
+    public void fetchJoin () {
+        try (Scope scope = detector.begin()) {
+            List<Member> members = queryFactory
+                    .selectFrom(member)
+                    .join(member.team, team).fetchJoin()
+                    .fetch();
+
+            for (Member m : members) {
+                m.getTeam().getName();
+            }
+
+            assertThat(scope.getViolations()).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("propagate 로 넘긴 작업이 다른 스레드에서 실행한 쿼리도 같은 범위에서 센다.")
+    public void propagateToOtherThread () {
+        assertThatThrownBy(() -> {
+            try (Scope scope = detector.begin()) {
+                Thread worker = new Thread(detector.propagate(() -> {
+                    for (long id = 1; id <= 3; id++) {
+                        queryFactory.select(team.name).from(team).where(team.id.eq(id)).fetch();
+                    }
+                }));
+                worker.start();
+                worker.join();
+
+                assertThat(scope.getViolations()).hasSize(1);
+            }
+        }).isInstanceOf(NPlusOneException.class);
+    }
+}
@@ -0,0 +1,226 @@
+package me.joshua.querydsl_study.support;
+
+import com.querydsl.core.QueryResults;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import me.joshua.querydsl_study.entity.Member;
+import me.joshua.querydsl_study.entity.Team;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnit;
+
+import static me.joshua.querydsl_study.entity.QMember.member;
+import static me.joshua.querydsl_study.entity.QTeam.team;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * DB 왕복 횟수는 하이버네이트 통계의 prepareStatementCount 로 센다.
+ */
+@SpringBootTest
+@Transactional
+class PagingQueryExecutorTest {
+
+    @Autowired
+    EntityManager em;
+
+    @PersistenceUnit
+    EntityManagerFactory emf;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    PagingQueryExecutor pagingQueryExecutor;
+
+    @Autowired
+    CountCache countCache;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    Statistics statistics;
+
+    @BeforeEach
+    public void before () {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.flush();
+        em.clear();
+
+        countCache.invalidateAll();
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("fetchResults 는 항상 count 쿼리를 추가로 날린다. (비교 기준)")
+    public void fetchResults_alwaysCounts () {
+        QueryResults<Member> results = queryFactory
+                .selectFrom(member)
+                .offset(0)
+                .limit(10)
+                .fetchResults();
+
+        assertThat(results.getTotal()).isEqualTo(4);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("첫 페이지가 페이지 크기보다 작으면 count 쿼리를 생략한다.")
+    public void shortFirstPage_skipsCount () {
+        Page<Member> page = pagingQueryExecutor.fetchPage(
+                queryFactory.selectFrom(member).orderBy(member.id.asc()),
+                queryFactory.select(member.count()).from(member),
+                PageRequest.of(0, 10));
+
+        assertThat(page.getTotalElements()).isEqualTo(4);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("마지막 페이지면 count 쿼리를 생략한다.")
+    public void lastPage_skipsCount () {
+        Page<Member> page = pagingQueryExecutor.fetchPage(
+                queryFactory.selectFrom(member).orderBy(member.id.asc()),
+                queryFactory.select(member.count()).from(member),
+                PageRequest.of(1, 3));
+
+        assertThat(page.getContent()).hasSize(1);
+        assertThat(page.getTotalElements()).isEqualTo(4);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("같은 조건의 total 은 캐시되어 두번째 요청부터 count 쿼리를 생략한다.")
+    public void cachedTotal () {
+        for (int i = 0; i < 3; i++) {
+            Page<Member> page = pagingQueryExecutor.fetchPage(
+                    queryFactory.selectFrom(member).where(member.age.goe(10)).orderBy(member.id.asc()),
+                    queryFactory.select(member.count()).from(member).where(member.age.goe(10)),
+                    PageRequest.of(0, 2));
+            assertThat(page.getTotalElements()).isEqualTo(4);
+        }
+
+        // content 3번 + count 1번 (fetchResults 였다면 6번)
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("조건이 다르면 캐시를 공유하지 않는다.")
+    public void cachedTotal_perPredicate () {
+        Page<Team> teamA = pagingQueryExecutor.fetchPage(
+                queryFactory.selectFrom(team).where(team.name.eq("teamA")).orderBy(team.id.asc()),
+                queryFactory.select(team.count()).from(team).where(team.name.eq("teamA")),
+                PageRequest.of(1, 1));
+        Page<Team> all = pagingQueryExecutor.fetchPage(
+                queryFactory.selectFrom(team).orderBy(team.id.asc()),
+                queryFactory.select(team.count()).from(team),
+                PageRequest.of(0, 1));
+
+        assertThat(teamA.getTotalElements()).isEqualTo(1);
+        assertThat(all.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("쓰기 트랜잭션에서 센 total 은 그 트랜잭션 안에서만 재사용하고 공유 캐시에 넣지 않는다.")
+    public void writeTransaction_keepsTotalLocal () {
+        JPAQuery<Long> countQuery = queryFactory.select(member.count()).from(member).where(member.age.goe(10));
+        String key = QueryKeys.of(countQuery);
+
+        for (int i = 0; i < 2; i++) {
+            pagingQueryExecutor.fetchPage(
+                    queryFactory.selectFrom(member).where(member.age.goe(10)).orderBy(member.id.asc()),
+                    queryFactory.select(member.count()).from(member).where(member.age.goe(10)),
+                    PageRequest.of(0, 2));
+        }
+
+        // content 2번 + count 1번
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThat(countCache.get(key)).isNull();
+    }
+
+    @Test
+    @DisplayName("읽기 전용 트랜잭션에서 센 total 은 공유 캐시에 넣는다.")
+    public void readOnlyTransaction_sharesTotal () {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        readOnly.setReadOnly(true);
+
+        JPAQuery<Long> countQuery = queryFactory.select(team.count()).from(team).where(team.name.eq("paging-none"));
+        String key = QueryKeys.of(countQuery);
+
+        // 두 번째 페이지가 비어 있으면 content 로 total 을 알 수 없으므로 count 쿼리를 실행한다.
+        readOnly.executeWithoutResult(status -> pagingQueryExecutor.fetchPage(
+                queryFactory.selectFrom(team).where(team.name.eq("paging-none")).orderBy(team.id.asc()),
+                queryFactory.select(team.count()).from(team).where(team.name.eq("paging-none")),
+                PageRequest.of(1, 1)));
+
+        assertThat(countCache.get(key)).isEqualTo(0L);
+    }
+
+    @Test
+    @DisplayName("쓰기 트랜잭션에서는 공유 캐시의 total 을 쓰지 않고 그 트랜잭션의 변경이 반영된 total 을 센다.")
+    public void writeTransaction_ignoresSharedTotal () {
+        JPAQuery<Long> countQuery = queryFactory.select(member.count()).from(member).where(member.age.goe(10));
+        countCache.put(QueryKeys.of(countQuery), 100L);
+
+        Page<Member> page = pagingQueryExecutor.fetchPage(
+                queryFactory.selectFrom(member).where(member.age.goe(10)).orderBy(member.id.asc()),
+                countQuery,
+                PageRequest.of(0, 2));
+
+        assertThat(page.getTotalElements()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("fetchPageAsync - 쓰기 트랜잭션 안에서는 커밋되지 않은 변경이 보이도록 같은 커넥션에서 센다.")
+    public void fetchPageAsync_writeTransaction () {
+        Page<Member> page = pagingQueryExecutor.fetchPageAsync(
+                queryFactory.selectFrom(member).orderBy(member.id.asc()),
+                queryFactory.select(member.count()).from(member),
+                PageRequest.of(0, 2));
+
+        assertThat(page.getContent()).hasSize(2);
+        assertThat(page.getTotalElements()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("fetchPageAsync - 읽기 전용 트랜잭션에서는 count 를 다른 커넥션에서 세고 공유 캐시에 넣는다.")
+    public void fetchPageAsync_readOnlyTransaction () {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        readOnly.setReadOnly(true);
+
+        JPAQuery<Long> countQuery = queryFactory.select(team.count()).from(team).where(team.name.eq("paging-none"));
+        String key = QueryKeys.of(countQuery);
+
+        Page<Team> page = readOnly.execute(status -> pagingQueryExecutor.fetchPageAsync(
+                queryFactory.selectFrom(team).where(team.name.eq("paging-none")).orderBy(team.id.asc()),
+                countQuery,
+                PageRequest.of(1, 1)));
+
+        assertThat(page.getTotalElements()).isEqualTo(0);
+        assertThat(countCache.get(key)).isEqualTo(0L);
+    }
+}
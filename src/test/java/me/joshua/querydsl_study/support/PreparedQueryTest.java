@@ -0,0 +1,84 @@
+package me.joshua.querydsl_study.support;
+
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.core.types.ParamNotSetException;
+import me.joshua.querydsl_study.dto.MemberDto;
+import me.joshua.querydsl_study.entity.Member;
+import me.joshua.querydsl_study.entity.Team;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static me.joshua.querydsl_study.entity.QMember.member;
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class PreparedQueryTest {
+
+    static final Param<String> USERNAME = new Param<>(String.class, "username");
+    static final Param<Integer> AGE = new Param<>(Integer.class, "age");
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @BeforeEach
+    public void before () {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamA));
+    }
+
+    @Test
+    @DisplayName("한 번 준비한 쿼리를 다른 값으로 여러 번 실행한다.")
+    public void bindAndFetch () {
+        PreparedQuery<Member> query = PreparedQuery.of(em, queryFactory
+                .selectFrom(member)
+                .where(member.username.eq(USERNAME)));
+
+        assertThat(query.bind(USERNAME, "member1").fetchOne().getAge()).isEqualTo(10);
+        assertThat(query.bind(USERNAME, "member2").fetchOne().getAge()).isEqualTo(20);
+        assertThat(query.bind(USERNAME, "nobody").fetchOne()).isNull();
+    }
+
+    @Test
+    @DisplayName("상수와 Param 을 섞어 쓰고, DTO 로 조회")
+    public void projection () {
+        PreparedQuery<MemberDto> query = PreparedQuery.of(em, queryFactory
+                .select(Projections.constructor(MemberDto.class,
+                        member.username,
+                        member.age))
+                .from(member)
+                .where(member.username.startsWith("member"),
+                        member.age.goe(AGE))
+                .orderBy(member.age.asc()));
+
+        List<MemberDto> result = query.bind(AGE, 20).fetch();
+
+        assertThat(result).extracting("username").containsExactly("member2", "member3");
+    }
+
+    @Test
+    @DisplayName("Param 을 바인딩하지 않으면 예외")
+    public void paramNotSet () {
+        PreparedQuery<Member> query = PreparedQuery.of(em, queryFactory
+                .selectFrom(member)
+                .where(member.username.eq(USERNAME)));
+
+        assertThatThrownBy(query::fetch).isInstanceOf(ParamNotSetException.class);
+    }
+}
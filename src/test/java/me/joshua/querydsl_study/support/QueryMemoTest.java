@@ -0,0 +1,181 @@
+package me.joshua.querydsl_study.support;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import me.joshua.querydsl_study.entity.Member;
+import me.joshua.querydsl_study.entity.Team;
+import me.joshua.querydsl_study.service.MemberBulkMutationService;
+import org.hibernate.SessionFactory;
+import org.hibernate.annotations.QueryHints;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceUnit;
+import java.util.List;
+
+import static me.joshua.querydsl_study.entity.QMember.member;
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class QueryMemoTest {
+
+    @Autowired
+    EntityManager em;
+
+    @PersistenceUnit
+    EntityManagerFactory emf;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    QueryMemo queryMemo;
+
+    @Autowired
+    MemberBulkMutationService memberBulkMutationService;
+
+    Statistics statistics;
+
+    @BeforeEach
+    public void before () {
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+
+        Team teamA = new Team("memoTeamA");
+        em.persist(teamA);
+        em.persist(new Member("memo1", 10, teamA));
+        em.persist(new Member("memo2", 20, teamA));
+        em.flush();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName ("같은 트랜잭션에서 같은 쿼리를 다시 실행하면 처음 결과를 돌려준다.")
+    public void memoize () {
+        List<Member> first = queryMemo.fetch(memoMembers());
+        List<Member> second = queryMemo.fetch(memoMembers());
+
+        assertThat(statistics.getQueryExecutionCount()).isEqualTo(1);
+        assertThat(second).containsExactlyElementsOf(first);
+    }
+
+    @Test
+    @DisplayName ("바인딩 값이 다르면 다른 쿼리다.")
+    public void differentParameter () {
+        queryMemo.fetchCount(queryFactory.select(member.count()).from(member).where(member.age.goe(10)));
+        long count = queryMemo.fetchCount(queryFactory.select(member.count()).from(member).where(member.age.goe(20)));
+
+        assertThat(statistics.getQueryExecutionCount()).isEqualTo(2);
+        assertThat(count).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    @DisplayName ("쿼리에 등장하는 엔티티를 수정하면 다시 실행한다. (flush 되지 않은 변경 포함)")
+    public void invalidateOnWrite () {
+        queryMemo.fetch(memoMembers());
+
+        em.persist(new Member("memo3", 30));
+        List<Member> members = queryMemo.fetch(memoMembers());
+
+        assertThat(statistics.getQueryExecutionCount()).isEqualTo(2);
+        assertThat(members).extracting("username").containsExactly("memo1", "memo2", "memo3");
+    }
+
+    @Test
+    @DisplayName ("쿼리와 상관없는 엔티티를 수정하면 그대로 돌려준다.")
+    public void keepOnUnrelatedWrite () {
+        queryMemo.fetch(memoMembers());
+
+        em.persist(new Team("memoTeamB"));
+        queryMemo.fetch(memoMembers());
+
+        assertThat(statistics.getQueryExecutionCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName ("영속성 컨텍스트를 비우면 다시 실행한다.")
+    public void invalidateOnClear () {
+        queryMemo.fetch(memoMembers());
+
+        em.clear();
+        List<Member> members = queryMemo.fetch(memoMembers());
+
+        assertThat(statistics.getQueryExecutionCount()).isEqualTo(2);
+        assertThat(em.contains(members.get(0))).isTrue();
+    }
+
+    @Test
+    @DisplayName ("벌크 연산 후에는 다시 실행한다.")
+    public void invalidateOnBulk () {
+        queryMemo.fetch(memoMembers());
+
+        memberBulkMutationService.addAge(member.username.startsWith("memo"), 1);
+        List<Member> members = queryMemo.fetch(memoMembers());
+
+        assertThat(members).extracting("age").containsExactly(11, 21);
+    }
+
+    @Test
+    @DisplayName ("서비스를 거치지 않은 벌크 update / delete 후에도 다시 실행한다.")
+    public void invalidateOnFactoryBulk () {
+        queryMemo.fetch(memoAges());
+
+        queryFactory.update(member)
+                .set(member.age, member.age.add(1))
+                .where(member.username.startsWith("memo"))
+                .execute();
+        assertThat(queryMemo.fetch(memoAges())).containsExactly(11, 21);
+
+        queryFactory.delete(member)
+                .where(member.username.eq("memo2"))
+                .execute();
+        assertThat(queryMemo.fetch(memoAges())).containsExactly(11);
+    }
+
+    @Test
+    @DisplayName ("lock mode 나 힌트가 다르면 다른 쿼리다.")
+    public void differentLockModeAndHints () {
+        queryMemo.fetch(memoMembers());
+        queryMemo.fetch(memoMembers().setLockMode(LockModeType.PESSIMISTIC_WRITE));
+        queryMemo.fetch(memoMembers().setHint(QueryHints.READ_ONLY, true));
+        assertThat(statistics.getQueryExecutionCount()).isEqualTo(3);
+
+        queryMemo.fetch(memoMembers().setLockMode(LockModeType.PESSIMISTIC_WRITE));
+        assertThat(statistics.getQueryExecutionCount()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName ("flush 되지 않은 수정도 반영해서 다시 실행한다.")
+    public void invalidateOnDirtyUpdate () {
+        List<Member> members = queryMemo.fetch(memoMembers());
+
+        members.get(0).setAge(99);
+        queryMemo.fetch(memoMembers());
+
+        assertThat(statistics.getQueryExecutionCount()).isEqualTo(2);
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(1);
+    }
+
+    private JPAQuery<Integer> memoAges() {
+        return queryFactory
+                .select(member.age)
+                .from(member)
+                .where(member.username.startsWith("memo"))
+                .orderBy(member.username.asc());
+    }
+
+    private JPAQuery<Member> memoMembers() {
+        return queryFactory
+                .selectFrom(member)
+                .where(member.username.startsWith("memo"))
+                .orderBy(member.username.asc());
+    }
+}
@@ -0,0 +1,77 @@
+package me.joshua.querydsl_study.support;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import me.joshua.querydsl_study.entity.Member;
+import me.joshua.querydsl_study.entity.Team;
+import me.joshua.querydsl_study.support.QueryPlanValidator.QueryPlanReport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static me.joshua.querydsl_study.entity.QMember.member;
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class QueryPlanValidatorTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    QueryPlanValidator queryPlanValidator;
+
+    @BeforeEach
+    public void before () {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 0; i < 100; i++) {
+            em.persist(new Member("member" + i, i, teamA));
+        }
+        em.flush();
+    }
+
+    @Test
+    @DisplayName ("등록된 쿼리는 모두 인덱스를 사용한다.")
+    public void registeredQueriesUseIndexes () {
+        List<QueryPlanReport> reports = queryPlanValidator.validateAll();
+
+        assertThat(reports).extracting("name")
+                .contains("member.findByUsername", "member.findDtoByUsername", "member.findPageOrderByAgeDesc", "team.findByName");
+        assertThat(reports)
+                .filteredOn(QueryPlanReport::isFullScan)
+                .as("전체 스캔 쿼리")
+                .isEmpty();
+    }
+
+    @Test
+    @DisplayName ("인덱스를 쓸 수 없는 조건은 전체 스캔으로 보고한다.")
+    public void reportFullScan () {
+        QueryPlanReport report = queryPlanValidator.explain("member.usernameEndsWith", queryFactory
+                .selectFrom(member)
+                .where(member.username.endsWith("1")));
+
+        assertThat(report.isFullScan()).isTrue();
+        assertThat(report.getFullScans()).anyMatch(table -> table.endsWith("MEMBER"));
+    }
+
+    @Test
+    @DisplayName ("MemberDto 프로젝션은 (username, age) 인덱스를 사용한다.")
+    public void coveringIndex () {
+        QueryPlanReport report = queryPlanValidator.explain("member.findDtoByUsername", queryFactory
+                .select(member.username, member.age)
+                .from(member)
+                .where(member.username.eq("member1")));
+
+        assertThat(report.getPlan()).containsIgnoringCase("idx_member_username_age");
+    }
+}
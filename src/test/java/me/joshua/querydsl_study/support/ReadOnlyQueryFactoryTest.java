@@ -0,0 +1,59 @@
+package me.joshua.querydsl_study.support;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import me.joshua.querydsl_study.entity.Member;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+
+import static me.joshua.querydsl_study.entity.QMember.member;
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class ReadOnlyQueryFactoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    ReadOnlyQueryFactory readOnlyQueryFactory;
+
+    @BeforeEach
+    public void before () {
+        em.persist(new Member("member1", 10));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    @DisplayName ("읽기 전용으로 조회한 엔티티는 값을 바꿔도 flush 되지 않는다.")
+    public void readOnly () {
+        Member found = readOnlyQueryFactory
+                .selectFrom(member)
+                .where(member.username.eq("member1"))
+                .fetchOne();
+
+        assertThat(em.unwrap(Session.class).isReadOnly(found)).isTrue();
+
+        found.setAge(99);
+        em.flush();
+        em.clear();
+
+        Member reloaded = queryFactory
+                .selectFrom(member)
+                .where(member.username.eq("member1"))
+                .fetchOne();
+        assertThat(reloaded.getAge()).isEqualTo(10);
+        assertThat(em.unwrap(Session.class).isReadOnly(reloaded)).isFalse();
+    }
+}
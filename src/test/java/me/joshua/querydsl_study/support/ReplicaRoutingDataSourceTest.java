@@ -0,0 +1,256 @@
+package me.joshua.querydsl_study.support;
+
+import com.zaxxer.hikari.HikariDataSource;
+import me.joshua.querydsl_study.support.ReplicaRoutingDataSource.Strategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 여러 개의 내장 H2 인스턴스를 HikariCP 풀로 감싸 primary / replica 로 사용한다.
+ * 라우팅은 실제 @Transactional 프록시와 DataSourceTransactionManager 를 거쳐서 확인한다.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    private AnnotationConfigApplicationContext context;
+
+    @AfterEach
+    public void tearDown () {
+        if (context != null) {
+            context.close();
+        }
+        pools.forEach(HikariDataSource::close);
+    }
+
+    @Test
+    @DisplayName ("쓰기 트랜잭션은 primary, 읽기 전용 트랜잭션은 replica 를 돌아가며 사용한다.")
+    public void routeByReadOnly () {
+        Urls urls = start(Strategy.ROUND_ROBIN, Duration.ZERO).getBean(Urls.class);
+
+        assertThat(urls.write()).contains("primary");
+        assertThat(urls.read()).contains("replica1");
+        assertThat(urls.read()).contains("replica2");
+        assertThat(urls.read()).contains("replica1");
+    }
+
+    @Test
+    @DisplayName ("least connections 전략은 커넥션을 잡고 있는 replica 를 피한다.")
+    public void leastConnections () {
+        Holder holder = start(Strategy.LEAST_CONNECTIONS, Duration.ZERO).getBean(Holder.class);
+
+        List<String> result = holder.readWhileHolding(4);
+
+        String held = result.get(0);
+        String other = held.contains("replica1") ? "replica2" : "replica1";
+        assertThat(held).contains("replica");
+        assertThat(result.subList(1, result.size())).allSatisfy(url -> assertThat(url).contains(other));
+    }
+
+    @Test
+    @DisplayName ("primary 를 강제하면 읽기 전용 트랜잭션도 primary 에서 읽는다.")
+    public void forcePrimary () {
+        Urls urls = start(Strategy.ROUND_ROBIN, Duration.ZERO).getBean(Urls.class);
+
+        String url = DataSourceRouting.usePrimary(urls::read);
+
+        assertThat(url).contains("primary");
+        assertThat(urls.read()).contains("replica");
+    }
+
+    @Test
+    @DisplayName ("복제 지연은 쓰기 트랜잭션이 커넥션을 얻은 시점이 아니라 커밋한 시점부터 잰다.")
+    public void replicationLagFromCommit () {
+        Urls urls = start(Strategy.ROUND_ROBIN, Duration.ofSeconds(1)).getBean(Urls.class);
+
+        assertThat(urls.read()).contains("replica");
+
+        assertThat(urls.writeSlowly(Duration.ofMillis(1500))).contains("primary");
+
+        assertThat(urls.read()).contains("primary");
+    }
+
+    @Test
+    @DisplayName ("롤백된 쓰기 트랜잭션은 복제 지연 구간을 만들지 않는다.")
+    public void replicationLagIgnoresRollback () {
+        Urls urls = start(Strategy.ROUND_ROBIN, Duration.ofHours(1)).getBean(Urls.class);
+
+        assertThatThrownBy(urls::writeAndRollback).isInstanceOf(IllegalStateException.class);
+        assertThat(urls.read()).contains("replica");
+
+        urls.write();
+        assertThat(urls.read()).contains("primary");
+    }
+
+    @Test
+    @DisplayName ("쓰기 트랜잭션이라도 조회만 했다면 복제 지연 구간을 만들지 않는다.")
+    public void replicationLagIgnoresReadOnlyWork () {
+        Urls urls = start(Strategy.ROUND_ROBIN, Duration.ofHours(1)).getBean(Urls.class);
+
+        assertThat(urls.readInWriteTransaction()).contains("primary");
+        assertThat(urls.read()).contains("replica");
+    }
+
+    @Test
+    @DisplayName ("복제 지연은 쓴 클라이언트의 읽기만 primary 로 보낸다.")
+    public void replicationLagPerClient () {
+        Urls urls = start(Strategy.ROUND_ROBIN, Duration.ofHours(1)).getBean(Urls.class);
+
+        DataSourceRouting.asClient("client-a", urls::write);
+
+        assertThat(DataSourceRouting.asClient("client-b", urls::read)).contains("replica");
+        assertThat(urls.read()).contains("replica");
+        assertThat(DataSourceRouting.asClient("client-a", urls::read)).contains("primary");
+    }
+
+    private AnnotationConfigApplicationContext start(final Strategy strategy, final Duration replicationLag) {
+        HikariDataSource primary = pool("primary");
+        new JdbcTemplate(primary).execute("create table if not exists routing_write (id int)");
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(
+                primary,
+                List.of(pool("replica1"), pool("replica2")),
+                strategy,
+                replicationLag);
+
+        context = new AnnotationConfigApplicationContext();
+        context.registerBean(DataSource.class, () -> new LazyConnectionDataSourceProxy(routing));
+        context.register(Config.class);
+        context.refresh();
+        return context;
+    }
+
+    private HikariDataSource pool(final String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("routing-" + name);
+        dataSource.setJdbcUrl("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        dataSource.setPassword("");
+        dataSource.setMaximumPoolSize(2);
+        pools.add(dataSource);
+        return dataSource;
+    }
+
+    @Configuration
+    @EnableTransactionManagement (proxyTargetClass = true)
+    static class Config {
+
+        @Bean
+        public PlatformTransactionManager transactionManager(final DataSource dataSource) {
+            return new DataSourceTransactionManager(dataSource);
+        }
+
+        @Bean
+        public Urls urls(final DataSource dataSource) {
+            return new Urls(new JdbcTemplate(dataSource));
+        }
+
+        @Bean
+        public Holder holder(final Urls urls) {
+            return new Holder(urls);
+        }
+    }
+
+    /**
+     * 트랜잭션이 실제로 사용한 커넥션의 URL 을 돌려준다.
+     * write* 는 primary 의 routing_write 테이블에 한 행을 넣는다.
+     */
+    static class Urls {
+
+        private final JdbcTemplate jdbcTemplate;
+
+        Urls(final JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        @Transactional (readOnly = true)
+        public String read() {
+            return url();
+        }
+
+        @Transactional (readOnly = true, propagation = Propagation.REQUIRES_NEW)
+        public String readInNewTransaction() {
+            return url();
+        }
+
+        @Transactional
+        public String readInWriteTransaction() {
+            return url();
+        }
+
+        @Transactional
+        public String write() {
+            insert();
+            return url();
+        }
+
+        @Transactional
+        public String writeSlowly(final Duration duration) {
+            insert();
+            String url = url();
+            try {
+                Thread.sleep(duration.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return url;
+        }
+
+        @Transactional
+        public void writeAndRollback() {
+            insert();
+            throw new IllegalStateException("rollback");
+        }
+
+        private void insert() {
+            jdbcTemplate.update("insert into routing_write (id) values (?)", 1);
+        }
+
+        private String url() {
+            return jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getURL());
+        }
+    }
+
+    /**
+     * 읽기 전용 트랜잭션으로 replica 커넥션을 잡은 채로 새 읽기 전용 트랜잭션을 times 번 연다.
+     * 첫 번째 값은 잡고 있는 커넥션의 URL 이다.
+     */
+    static class Holder {
+
+        private final Urls urls;
+
+        Holder(final Urls urls) {
+            this.urls = urls;
+        }
+
+        @Transactional (readOnly = true)
+        public List<String> readWhileHolding(final int times) {
+            List<String> result = new ArrayList<>();
+            result.add(urls.read());
+            for (int i = 0; i < times; i++) {
+                result.add(urls.readInNewTransaction());
+            }
+            return result;
+        }
+    }
+}
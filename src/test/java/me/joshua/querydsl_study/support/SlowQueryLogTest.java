@@ -0,0 +1,69 @@
+package me.joshua.querydsl_study.support;
+
+import me.joshua.querydsl_study.entity.Member;
+import me.joshua.querydsl_study.support.SlowQueryLog.QueryLatency;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest (properties = "querydsl-study.slow-query.threshold=0ms")
+@Transactional
+class SlowQueryLogTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    SlowQueryLog slowQueryLog;
+
+    @BeforeEach
+    public void before () {
+        em.persist(new Member("member1", 10));
+        em.flush();
+        slowQueryLog.reset();
+    }
+
+    @Test
+    @DisplayName ("지문은 주석, 리터럴, 공백, IN 목록 길이 차이를 지운다.")
+    public void fingerprint () {
+        String a = SqlStatements.fingerprint("/* load Member */ select * from member where username = 'kim''s' and age in (1, 2, 3)");
+        String b = SqlStatements.fingerprint("SELECT *\n  FROM member WHERE username = 'lee' AND age IN (?, ?)");
+
+        assertThat(a).isEqualTo("select * from member where username = ? and age in (?...)");
+        assertThat(b).isEqualTo(a);
+        assertThat(SqlStatements.fingerprint("select member0_.member_id from member member0_"))
+                .isEqualTo("select member0_.member_id from member member0_");
+    }
+
+    @Test
+    @DisplayName ("값만 다른 쿼리는 하나의 히스토그램에 쌓이고, 바인딩 값은 남지 않는다.")
+    public void histogramPerFingerprint () {
+        for (int age = 0; age < 10; age++) {
+            jdbcTemplate.queryForList("select username from member where age = " + age);
+        }
+
+        List<QueryLatency> top = slowQueryLog.top(10);
+
+        assertThat(top).extracting(QueryLatency::getFingerprint)
+                .contains("select username from member where age = ?");
+        QueryLatency latency = top.stream()
+                .filter(it -> it.getFingerprint().equals("select username from member where age = ?"))
+                .findFirst()
+                .orElseThrow();
+        assertThat(latency.getCount()).isEqualTo(10);
+        assertThat(latency.getSlowCount()).isEqualTo(10);
+        assertThat(latency.getMaxMs()).isGreaterThanOrEqualTo(latency.getP50Ms());
+    }
+}
@@ -0,0 +1,156 @@
+package me.joshua.querydsl_study.support;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import me.joshua.querydsl_study.entity.Member;
+import me.joshua.querydsl_study.entity.QMember;
+import me.joshua.querydsl_study.entity.Team;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static me.joshua.querydsl_study.entity.QMember.member;
+import static me.joshua.querydsl_study.entity.QTeam.team;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * inlineParallel 은 별도 트랜잭션에서 서브쿼리를 실행하므로
+ * 이 테스트는 데이터를 커밋하고, 끝나면 직접 지운다.
+ */
+@SpringBootTest
+class SubQueryInlinerTest {
+
+    static final String PREFIX = "inline-";
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    SubQueryInliner subQueryInliner;
+
+    QMember memberSub = new QMember("memberSub");
+
+    @BeforeEach
+    public void before () {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team(PREFIX + "teamA");
+            Team teamB = new Team(PREFIX + "teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+
+            em.persist(new Member(PREFIX + "member1", 10, teamA));
+            em.persist(new Member(PREFIX + "member2", 20, teamA));
+            em.persist(new Member(PREFIX + "member3", 30, teamB));
+            em.persist(new Member(PREFIX + "member4", 40, teamB));
+        });
+    }
+
+    @AfterEach
+    public void after () {
+        transactionTemplate.executeWithoutResult(status -> {
+            queryFactory.delete(member).where(member.username.startsWith(PREFIX)).execute();
+            queryFactory.delete(team).where(team.name.startsWith(PREFIX)).execute();
+        });
+    }
+
+    @Test
+    @DisplayName ("where 절의 uncorrelated 스칼라 서브쿼리를 결과값으로 바꾼다.")
+    public void inlineWhere () {
+        JPAQuery<Member> query = queryFactory
+                .selectFrom(member)
+                .where(member.username.startsWith(PREFIX),
+                        member.age.eq(JPAExpressions
+                                .select(memberSub.age.max())
+                                .from(memberSub)
+                                .where(memberSub.username.startsWith(PREFIX))));
+
+        JPAQuery<Member> inlined = transactionTemplate.execute(status -> subQueryInliner.inline(query));
+
+        assertThat(inlined.toString()).doesNotContain("memberSub").contains("40");
+        assertThat(transactionTemplate.execute(status -> inlined.fetch()))
+                .extracting("age")
+                .containsExactly(40);
+    }
+
+    @Test
+    @DisplayName ("in 서브쿼리는 결과 목록으로 바꾼다.")
+    public void inlineIn () {
+        JPAQuery<Member> query = queryFactory
+                .selectFrom(member)
+                .where(member.username.startsWith(PREFIX),
+                        member.age.in(JPAExpressions
+                                .select(memberSub.age)
+                                .from(memberSub)
+                                .where(memberSub.username.startsWith(PREFIX), memberSub.age.gt(10))))
+                .orderBy(member.age.asc());
+
+        List<Member> result = transactionTemplate.execute(status -> subQueryInliner.inline(query).fetch());
+
+        assertThat(result).extracting("age").containsExactly(20, 30, 40);
+    }
+
+    @Test
+    @DisplayName ("select 절과 case 의 서브쿼리도 바꾸고, 여러 서브쿼리를 동시에 실행할 수 있다.")
+    public void inlineParallel () {
+        JPAQuery<Tuple> query = queryFactory
+                .select(member.username,
+                        JPAExpressions
+                                .select(memberSub.age.avg())
+                                .from(memberSub)
+                                .where(memberSub.username.startsWith(PREFIX)),
+                        member.age
+                                .when(10).then(JPAExpressions
+                                        .select(memberSub.age.max())
+                                        .from(memberSub)
+                                        .where(memberSub.username.startsWith(PREFIX)))
+                                .otherwise(JPAExpressions
+                                        .select(memberSub.age.min())
+                                        .from(memberSub)
+                                        .where(memberSub.username.startsWith(PREFIX))))
+                .from(member)
+                .where(member.username.startsWith(PREFIX))
+                .orderBy(member.age.asc());
+
+        JPAQuery<Tuple> inlined = subQueryInliner.inlineParallel(query);
+        List<Tuple> result = transactionTemplate.execute(status -> inlined.fetch());
+
+        assertThat(inlined.toString()).doesNotContain("memberSub");
+        assertThat(result).extracting(tuple -> tuple.get(1, Double.class)).containsOnly(25.0);
+        assertThat(result).extracting(tuple -> tuple.get(2, Integer.class)).containsExactly(40, 10, 10, 10);
+    }
+
+    @Test
+    @DisplayName ("바깥 쿼리를 참조하는 서브쿼리는 그대로 둔다.")
+    public void correlated () {
+        JPAQuery<Member> query = queryFactory
+                .selectFrom(member)
+                .where(member.username.startsWith(PREFIX),
+                        member.age.eq(JPAExpressions
+                                .select(memberSub.age.max())
+                                .from(memberSub)
+                                .where(memberSub.team.eq(member.team))))
+                .orderBy(member.age.asc());
+
+        JPAQuery<Member> inlined = transactionTemplate.execute(status -> subQueryInliner.inline(query));
+
+        assertThat(inlined.toString()).contains("memberSub");
+        assertThat(transactionTemplate.execute(status -> inlined.fetch()))
+                .extracting("age")
+                .containsExactly(20, 40);
+    }
+}
@@ -0,0 +1,297 @@
+package me.joshua.querydsl_study.support;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import me.joshua.querydsl_study.entity.Member;
+import me.joshua.querydsl_study.entity.Team;
+import me.joshua.querydsl_study.service.MemberBulkMutationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static me.joshua.querydsl_study.entity.QMember.member;
+import static me.joshua.querydsl_study.entity.QTeam.team;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 통계는 커밋된 변경만 반영하므로 이 테스트는 데이터를 커밋하고, 끝나면 직접 지운다.
+ */
+@SpringBootTest
+class TeamStatsRegistryTest {
+
+    static final String PREFIX = "stats-";
+    static final int WRITES = 100;
+    static final int READS = 200;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    TeamStatsRegistry teamStatsRegistry;
+
+    @Autowired
+    MemberBulkMutationService memberBulkMutationService;
+
+    Long teamAId;
+
+    Long teamBId;
+
+    @BeforeEach
+    public void before () {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team(PREFIX + "teamA");
+            Team teamB = new Team(PREFIX + "teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+
+            em.persist(new Member(PREFIX + "member1", 10, teamA));
+            em.persist(new Member(PREFIX + "member2", 20, teamA));
+            em.persist(new Member(PREFIX + "member3", 30, teamB));
+            em.persist(new Member(PREFIX + "member4", 40, teamB));
+
+            teamAId = teamA.getId();
+            teamBId = teamB.getId();
+        });
+    }
+
+    @AfterEach
+    public void after () {
+        transactionTemplate.executeWithoutResult(status -> {
+            queryFactory.delete(member).where(member.username.startsWith(PREFIX)).execute();
+            queryFactory.delete(team).where(team.name.startsWith(PREFIX)).execute();
+        });
+        teamStatsRegistry.invalidate();
+    }
+
+    @Test
+    @DisplayName ("처음 조회하면 group by 쿼리 결과로 채운다.")
+    public void load () {
+        TeamStats teamA = teamStatsRegistry.find(teamAId);
+
+        assertThat(teamA.getTeamName()).isEqualTo(PREFIX + "teamA");
+        assertThat(teamA.getCount()).isEqualTo(2);
+        assertThat(teamA.getAverageAge()).isEqualTo(15);
+        assertThat(teamA.getMinAge()).isEqualTo(10);
+        assertThat(teamA.getMaxAge()).isEqualTo(20);
+        assertThat(teamStatsRegistry.findAll())
+                .filteredOn(stats -> stats.getTeamName().startsWith(PREFIX))
+                .extracting(TeamStats::getTeamName)
+                .containsExactly(PREFIX + "teamA", PREFIX + "teamB");
+    }
+
+    @Test
+    @DisplayName ("커밋된 등록 / 나이 변경 / 팀 변경 / 삭제를 바뀐 팀만 다시 집계해서 반영한다.")
+    public void incremental () {
+        teamStatsRegistry.find(teamAId);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = em.find(Team.class, teamAId);
+            Team teamB = em.find(Team.class, teamBId);
+            em.persist(new Member(PREFIX + "member5", 50, teamA));
+
+            findMember("member1").setAge(11);
+            findMember("member2").changeTeam(teamB);
+            em.remove(findMember("member4"));
+        });
+
+        assertStats(teamAId, 2, 61, 11, 50);
+        assertStats(teamBId, 2, 50, 20, 30);
+    }
+
+    @Test
+    @DisplayName ("롤백된 변경은 반영하지 않는다.")
+    public void rollback () {
+        teamStatsRegistry.find(teamAId);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            findMember("member1").setAge(99);
+            em.flush();
+            status.setRollbackOnly();
+        });
+
+        assertStats(teamAId, 2, 30, 10, 20);
+    }
+
+    @Test
+    @DisplayName ("벌크 연산이 커밋되면 다시 채운다.")
+    public void bulk () {
+        teamStatsRegistry.find(teamAId);
+
+        memberBulkMutationService.addAge(member.username.startsWith(PREFIX), 1);
+
+        assertStats(teamAId, 2, 32, 11, 21);
+        assertStats(teamBId, 2, 72, 31, 41);
+    }
+
+    @Test
+    @DisplayName ("다른 트랜잭션이 먼저 바꾼 회원을 예전 값으로 수정하면 실패하고 통계는 커밋된 값을 따른다.")
+    public void staleUpdate () throws Exception {
+        teamStatsRegistry.find(teamAId);
+        Long memberId = transactionTemplate.execute(status -> findMember("member1").getId());
+        CountDownLatch loaded = new CountDownLatch(1);
+        CountDownLatch committed = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        Future<?> stale = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            Member loadedMember = em.find(Member.class, memberId);
+            loaded.countDown();
+            await(committed);
+            loadedMember.setAge(99);
+        }));
+        await(loaded);
+        transactionTemplate.executeWithoutResult(status -> em.find(Member.class, memberId).setAge(11));
+        committed.countDown();
+
+        assertThatThrownBy(() -> stale.get(10, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(ObjectOptimisticLockingFailureException.class);
+        executor.shutdown();
+        assertStats(teamAId, 2, 31, 11, 20);
+    }
+
+    @Test
+    @DisplayName ("여러 트랜잭션이 동시에 회원을 바꿔도 끝나면 group by 쿼리 결과와 같다.")
+    public void concurrentWrites () throws Exception {
+        teamStatsRegistry.find(teamAId);
+        Long[] teamIds = {teamAId, teamBId};
+        List<Long> memberIds = new CopyOnWriteArrayList<>(transactionTemplate.execute(status -> queryFactory
+                .select(member.id)
+                .from(member)
+                .where(member.username.startsWith(PREFIX))
+                .fetch()));
+        AtomicInteger names = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int w = 0; w < 4; w++) {
+            futures.add(executor.submit(() -> {
+                for (int n = 0; n < WRITES; n++) {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    Long memberId = memberIds.get(random.nextInt(memberIds.size()));
+                    Long teamId = teamIds[random.nextInt(teamIds.length)];
+                    int operation = random.nextInt(4);
+                    try {
+                        Long created = transactionTemplate.execute(status -> {
+                            Member target = em.find(Member.class, memberId);
+                            if (operation == 0 || target == null) {
+                                Member saved = new Member(PREFIX + "new" + names.incrementAndGet(),
+                                        random.nextInt(100), em.find(Team.class, teamId));
+                                em.persist(saved);
+                                return saved.getId();
+                            }
+                            if (operation == 1) {
+                                target.setAge(random.nextInt(100));
+                            } else if (operation == 2) {
+                                target.changeTeam(em.find(Team.class, teamId));
+                            } else {
+                                em.remove(target);
+                            }
+                            return null;
+                        });
+                        if (created != null) {
+                            memberIds.add(created);
+                        }
+                    } catch (ConcurrencyFailureException | PersistenceException e) {
+                        // 같은 회원을 동시에 수정 / 삭제하면 충돌한다. 통계는 커밋된 변경만 반영하면 된다.
+                    }
+                }
+            }));
+        }
+        for (int r = 0; r < 2; r++) {
+            futures.add(executor.submit(() -> {
+                for (int n = 0; n < READS; n++) {
+                    teamStatsRegistry.findAll();
+                }
+            }));
+        }
+
+        try {
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        awaitRefresh();
+        for (Long teamId : teamIds) {
+            Tuple expected = transactionTemplate.execute(status -> queryFactory
+                    .select(member.count(), member.age.min(), member.age.max())
+                    .from(member)
+                    .where(member.team.id.eq(teamId))
+                    .fetchOne());
+            long sum = transactionTemplate.execute(status -> queryFactory
+                    .select(member.age)
+                    .from(member)
+                    .where(member.team.id.eq(teamId))
+                    .fetch()).stream().mapToLong(Integer::longValue).sum();
+            TeamStats stats = teamStatsRegistry.find(teamId);
+
+            if (expected.get(member.count()) == 0) {
+                assertThat(stats).isNull();
+            } else {
+                assertStats(teamId, expected.get(member.count()), sum,
+                        expected.get(member.age.min()), expected.get(member.age.max()));
+            }
+        }
+    }
+
+    private void awaitRefresh() {
+        try {
+            teamStatsRegistry.awaitRefresh();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Member findMember(final String username) {
+        return queryFactory
+                .selectFrom(member)
+                .where(member.username.eq(PREFIX + username))
+                .fetchOne();
+    }
+
+    /**
+     * 커밋 후의 다시 집계는 별도 스레드에서 실행되므로 끝날 때까지 기다린 뒤 비교한다.
+     */
+    private void assertStats(final Long teamId, final long count, final long sum, final int minAge, final int maxAge) {
+        awaitRefresh();
+        TeamStats stats = teamStatsRegistry.find(teamId);
+        assertThat(stats.getCount()).isEqualTo(count);
+        assertThat(stats.getMinAge()).isEqualTo(minAge);
+        assertThat(stats.getMaxAge()).isEqualTo(maxAge);
+        assertThat(stats.getSum()).isEqualTo(sum);
+    }
+}